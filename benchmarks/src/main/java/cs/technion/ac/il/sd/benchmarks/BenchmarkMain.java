@@ -0,0 +1,22 @@
+package cs.technion.ac.il.sd.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks jar: runs JMH with the given command line, writing the results as JSON to
+ * {@code jmh-result.json} unless a result format is given, so runs can be compared to find regressions.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf")) {
+            arguments.addAll(0, Arrays.asList("-rf", "json", "-rff", "jmh-result.json"));
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,126 @@
+package cs.technion.ac.il.sd.benchmarks;
+
+import cs.technion.ac.il.sd.app.ManagerAppImpl;
+import cs.technion.ac.il.sd.app.MpscQueue;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the hand-off of completed tasks from callback threads to the scheduling thread of
+ * {@link ManagerAppImpl}: {@link MpscQueue} against the {@link LinkedBlockingQueue} it replaced.
+ * <br> Each group runs 3 producer threads offering task ids and one consumer, which either takes one id at a time
+ * or waits for one and drains the rest in a batch, as the scheduling loop does. Queues are bounded so that producers
+ * can't outrun the consumer indefinitely; a full queue makes them wait (LinkedBlockingQueue) or yield (MpscQueue).
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompletionQueueBenchmark {
+
+    private static final Integer ID = 42;
+
+    @Param({"1024", "65536"})
+    public int capacity;
+
+    private MpscQueue<Integer> mpsc;
+    private LinkedBlockingQueue<Integer> blocking;
+    private final List<Integer> batch = new ArrayList<>();
+
+    @Setup(Level.Iteration)
+    public void createQueues() {
+        mpsc = new MpscQueue<>(capacity);
+        blocking = new LinkedBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Frees producers blocked on a full queue once the consumer stopped, so that the iteration can end
+     */
+    @TearDown(Level.Iteration)
+    public void clearQueues() {
+        blocking.clear();
+    }
+
+    @Benchmark
+    @Group("blockingTake")
+    @GroupThreads(3)
+    public void blockingTakeOffer() throws InterruptedException {
+        blocking.offer(ID, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Group("blockingTake")
+    @GroupThreads(1)
+    public Integer blockingTakeConsume() throws InterruptedException {
+        return blocking.poll(10, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Group("blockingDrain")
+    @GroupThreads(3)
+    public void blockingDrainOffer() throws InterruptedException {
+        blocking.offer(ID, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Group("blockingDrain")
+    @GroupThreads(1)
+    public int blockingDrainConsume(Blackhole blackhole) throws InterruptedException {
+        Integer first = blocking.poll(10, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        batch.add(first);
+        int count = 1 + blocking.drainTo(batch);
+        blackhole.consume(batch);
+        batch.clear();
+        return count;
+    }
+
+    @Benchmark
+    @Group("mpscTake")
+    @GroupThreads(3)
+    public void mpscTakeOffer() {
+        if (!mpsc.offer(ID)) {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @Group("mpscTake")
+    @GroupThreads(1)
+    public Integer mpscTakeConsume() throws InterruptedException {
+        return mpsc.poll(10, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Group("mpscDrain")
+    @GroupThreads(3)
+    public void mpscDrainOffer() {
+        if (!mpsc.offer(ID)) {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @Group("mpscDrain")
+    @GroupThreads(1)
+    public int mpscDrainConsume(Blackhole blackhole) throws InterruptedException {
+        Integer first = mpsc.poll(10, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        batch.add(first);
+        int count = 1 + mpsc.drain(batch::add);
+        blackhole.consume(batch);
+        batch.clear();
+        return count;
+    }
+}
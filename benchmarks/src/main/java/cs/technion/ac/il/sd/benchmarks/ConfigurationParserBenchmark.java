@@ -0,0 +1,59 @@
+package cs.technion.ac.il.sd.benchmarks;
+
+import cs.technion.ac.il.sd.app.BinaryConfiguration;
+import cs.technion.ac.il.sd.app.Configuration;
+import cs.technion.ac.il.sd.app.WorkloadGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link Configuration#fromFile(File)} and {@link Configuration#fromFileParallel(File)} on
+ * configurations of {@link WorkloadGenerator}, where every task depends on up to 3 earlier tasks, against loading
+ * the same configurations from {@link BinaryConfiguration}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConfigurationParserBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int lines;
+
+    private File file;
+    private File binary;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = File.createTempFile("configuration", ".txt");
+        WorkloadGenerator.builder(lines).seed(lines).build().write(file);
+        binary = File.createTempFile("configuration", ".bin");
+        BinaryConfiguration.convert(file, binary);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        file.delete();
+        binary.delete();
+    }
+
+    @Benchmark
+    public Configuration streaming() {
+        return Configuration.fromFile(file);
+    }
+
+    @Benchmark
+    public Configuration parallel() {
+        return Configuration.fromFileParallel(file);
+    }
+
+    @Benchmark
+    public Configuration binary() {
+        return BinaryConfiguration.load(binary);
+    }
+}
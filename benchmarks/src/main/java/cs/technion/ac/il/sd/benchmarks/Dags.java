@@ -0,0 +1,83 @@
+package cs.technion.ac.il.sd.benchmarks;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+
+import java.util.Random;
+
+/**
+ * Shapes of synthetic directed acyclic graphs over the vertices {@code 0..n-1}, where every edge goes from a
+ * smaller vertex to a larger one and vertex 0 is a source.
+ */
+public enum Dags {
+    /**
+     * Every vertex depends on up to 3 random earlier vertices
+     */
+    RANDOM {
+        @Override
+        void addEdges(DirectedGraph<Integer, DefaultEdge> graph, int n, Random random) {
+            for (int v = 1; v < n; v++) {
+                int edges = 1 + random.nextInt(3);
+                for (int e = 0; e < edges; e++) {
+                    graph.addEdge(random.nextInt(v), v);
+                }
+            }
+        }
+    },
+    /**
+     * A single path {@code 0 -> 1 -> ... -> n-1}
+     */
+    CHAIN {
+        @Override
+        void addEdges(DirectedGraph<Integer, DefaultEdge> graph, int n, Random random) {
+            for (int v = 1; v < n; v++) {
+                graph.addEdge(v - 1, v);
+            }
+        }
+    },
+    /**
+     * Vertex 0 with an edge to every other vertex
+     */
+    WIDE {
+        @Override
+        void addEdges(DirectedGraph<Integer, DefaultEdge> graph, int n, Random random) {
+            for (int v = 1; v < n; v++) {
+                graph.addEdge(0, v);
+            }
+        }
+    },
+    /**
+     * About sqrt(n) layers of about sqrt(n) vertices, every vertex depending on 2 random vertices of the
+     * previous layer
+     */
+    LAYERED {
+        @Override
+        void addEdges(DirectedGraph<Integer, DefaultEdge> graph, int n, Random random) {
+            int width = Math.max(1, (int) Math.sqrt(n));
+            for (int v = 1; v < n; v++) {
+                int layerStart = v < width ? 0 : v / width * width;
+                int previousStart = Math.max(0, layerStart - width);
+                int previousWidth = Math.max(1, layerStart - previousStart);
+                graph.addEdge(previousStart + random.nextInt(previousWidth), v);
+                graph.addEdge(previousStart + random.nextInt(previousWidth), v);
+            }
+        }
+    };
+
+    abstract void addEdges(DirectedGraph<Integer, DefaultEdge> graph, int n, Random random);
+
+    /**
+     * @param n number of vertices
+     * @param seed seed of the random edges
+     * @return a new graph of this shape
+     */
+    public DirectedGraph<Integer, DefaultEdge> create(int n, long seed) {
+        DirectedGraph<Integer, DefaultEdge> graph = new DefaultDirectedGraph<>(DefaultEdge.class);
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+        }
+        addEdges(graph, n, new Random(seed));
+        return graph;
+    }
+}
@@ -0,0 +1,148 @@
+package cs.technion.ac.il.sd.benchmarks;
+
+import cs.technion.ac.il.sd.library.BreadthFirstLevels;
+import cs.technion.ac.il.sd.library.CriticalPath;
+import cs.technion.ac.il.sd.library.GraphTraverse;
+import cs.technion.ac.il.sd.library.GraphUtils;
+import cs.technion.ac.il.sd.library.ReachabilityIndex;
+import cs.technion.ac.il.sd.library.TopologicalSort;
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of every {@link GraphUtils} and {@link GraphTraverse} operation on the synthetic graph shapes of {@link Dags}.
+ * Traversals are fully consumed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GraphBenchmark {
+
+    @Param({"RANDOM", "CHAIN", "WIDE", "LAYERED"})
+    public Dags shape;
+
+    @Param({"1000", "100000"})
+    public int vertices;
+
+    private DirectedGraph<Integer, DefaultEdge> graph;
+    private ReachabilityIndex<Integer> reachability;
+
+    @Setup(Level.Trial)
+    public void createGraph() {
+        graph = shape.create(vertices, vertices);
+        reachability = GraphUtils.reachabilityIndex(graph);
+    }
+
+    private static int consume(Iterator<Integer> iterator, Blackhole blackhole) {
+        int count = 0;
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int toposort(Blackhole blackhole) {
+        return consume(GraphUtils.toposort(graph).get(), blackhole);
+    }
+
+    @Benchmark
+    public TopologicalSort<Integer> topologicalSort() {
+        return GraphUtils.topologicalSort(graph);
+    }
+
+    @Benchmark
+    public boolean hasCycle() {
+        return GraphUtils.hasCycle(graph);
+    }
+
+    @Benchmark
+    public Optional<CriticalPath<Integer>> criticalPath() {
+        return GraphUtils.criticalPath(graph, v -> v % 16);
+    }
+
+    @Benchmark
+    public Set<Integer> getSourcesVertices() {
+        return GraphUtils.getSourcesVertices(graph);
+    }
+
+    @Benchmark
+    public Set<Integer> getLeafVertices() {
+        return GraphUtils.getLeafVertices(graph);
+    }
+
+    @Benchmark
+    public Set<Integer> getVerticesSuchThat() {
+        return GraphUtils.getVerticesSuchThat(graph, v -> graph.outDegreeOf(v) > 1);
+    }
+
+    @Benchmark
+    public long countVerticesSuchThat() {
+        return GraphUtils.countVerticesSuchThat(graph, v -> graph.outDegreeOf(v) > 1);
+    }
+
+    @Benchmark
+    public boolean anyVertexSuchThat() {
+        return GraphUtils.anyVertexSuchThat(graph, v -> graph.outDegreeOf(v) > 1);
+    }
+
+    @Benchmark
+    public Set<Integer> getVerticesSuchThatParallel() {
+        return GraphUtils.getVerticesSuchThatParallel(graph, v -> graph.outDegreeOf(v) > 1);
+    }
+
+    @Benchmark
+    public Set<Integer> getAllReachableVerticesFromSource() {
+        return GraphUtils.getAllReachableVerticesFromSource(graph, 0);
+    }
+
+    /**
+     * Same query as {@link #getAllReachableVerticesFromSource()}, answered by an index built once per graph
+     */
+    @Benchmark
+    public List<Integer> reachabilityIndexDescendants() {
+        return reachability.getDescendants(0);
+    }
+
+    @Benchmark
+    public boolean reachabilityIndexReaches() {
+        return reachability.reaches(0, vertices - 1);
+    }
+
+    @Benchmark
+    public int dfsCrossComponent(Blackhole blackhole) {
+        return consume(GraphTraverse.dfsCrossComponent(graph, 0), blackhole);
+    }
+
+    @Benchmark
+    public int dfsSingleComponent(Blackhole blackhole) {
+        return consume(GraphTraverse.dfsSingleComponent(graph, 0), blackhole);
+    }
+
+    @Benchmark
+    public int bfsCrossComponent(Blackhole blackhole) {
+        return consume(GraphTraverse.bfsCrossComponent(graph, 0), blackhole);
+    }
+
+    @Benchmark
+    public int bfsSingleComponent(Blackhole blackhole) {
+        return consume(GraphTraverse.bfsSingleComponent(graph, 0), blackhole);
+    }
+
+    @Benchmark
+    public BreadthFirstLevels<Integer> parallelBfs() {
+        return GraphTraverse.parallelBfs(graph, 0);
+    }
+}
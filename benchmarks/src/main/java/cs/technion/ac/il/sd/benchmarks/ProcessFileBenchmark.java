@@ -0,0 +1,63 @@
+package cs.technion.ac.il.sd.benchmarks;
+
+import cs.technion.ac.il.sd.ExternalManager;
+import cs.technion.ac.il.sd.app.ManagerAppImpl;
+import cs.technion.ac.il.sd.app.PriorityPolicy;
+import cs.technion.ac.il.sd.app.SchedulerListener;
+import cs.technion.ac.il.sd.app.WorkloadGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end cost of {@link ManagerAppImpl#processFile(File)} - parsing, validation and scheduling - on every
+ * shape of {@link WorkloadGenerator}, with an {@link ExternalManager} that completes every task as soon as it is
+ * run, so only the manager's own overhead is measured. The app is created directly rather than through Guice,
+ * whose class generation is not part of processing a file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProcessFileBenchmark {
+
+    private static final ExternalManager INSTANT = new ExternalManager() {
+        @Override
+        public void run(String name, int cpus, int memory, int disk, Runnable callback) {
+            callback.run();
+        }
+
+        @Override
+        public void fail() {
+        }
+    };
+
+    @Param({"1000", "100000"})
+    public int tasks;
+
+    @Param({"CHAINS", "FAN_OUT", "FAN_IN", "LAYERED", "RANDOM"})
+    public WorkloadGenerator.Shape shape;
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = File.createTempFile("configuration", ".txt");
+        WorkloadGenerator.builder(tasks).seed(tasks).shape(shape).width(64).build().write(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Benchmark
+    public void processFile() {
+        new ManagerAppImpl((cpus, memory, disks) -> INSTANT, new PriorityPolicy(), SchedulerListener.NONE)
+                .processFile(file);
+    }
+}
@@ -0,0 +1,215 @@
+package cs.technion.ac.il.sd.library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Result of a level-synchronous breadth-first search from a source vertex: the vertices reached, batched by their
+ * distance from the source, and the distance of every vertex.
+ * <br> Each level is expanded into the next one on a {@link ForkJoinPool}: the frontier is split into chunks whose
+ * successors are scanned in parallel, and a vertex is claimed by the first chunk to set its bit in a shared atomic
+ * visited bitmap, so every vertex is reached exactly once. Levels are joined before the next one starts, so the
+ * levels and distances are the same as those of a sequential search; only the order of vertices within a level
+ * depends on the run. A frontier of a single chunk is expanded on the calling thread.
+ * <br> Instances are created by {@link GraphTraverse#parallelBfs}.
+ *
+ * @param <V> type of vertex object in the graph
+ */
+public final class BreadthFirstLevels<V> {
+
+    /**
+     * Number of frontier vertices expanded by a single task
+     */
+    static final int CHUNK = 2048;
+
+    private final IntFunction<V> vertexAt;
+    private final ToIntFunction<V> indexOf;
+    private final int[] order;
+    private final int[] offsets;
+    private final int[] distance;
+
+    private BreadthFirstLevels(IntFunction<V> vertexAt, ToIntFunction<V> indexOf, int[] order, int[] offsets,
+                               int[] distance) {
+        this.vertexAt = vertexAt;
+        this.indexOf = indexOf;
+        this.order = order;
+        this.offsets = offsets;
+        this.distance = distance;
+    }
+
+    static <V> BreadthFirstLevels<V> of(CompactDigraph graph, int source, ForkJoinPool pool,
+                                        IntFunction<V> vertexAt, ToIntFunction<V> indexOf) {
+        int n = graph.getVertexCount();
+        AtomicIntegerArray visited = new AtomicIntegerArray((n + 31) >>> 5);
+        int[] distance = new int[n];
+        Arrays.fill(distance, -1);
+        int[] order = new int[n];
+        // n levels at most, followed by the empty one ending the search
+        int[] offsets = new int[n + 2];
+        visit(visited, source);
+        distance[source] = 0;
+        order[0] = source;
+        offsets[1] = 1;
+        int levels = 1;
+        while (offsets[levels] > offsets[levels - 1]) {
+            int from = offsets[levels - 1];
+            int to = offsets[levels];
+            int chunks = (to - from + CHUNK - 1) / CHUNK;
+            int[][] found = new int[chunks][];
+            Expand expand = new Expand(graph, visited, distance, order, from, to, levels, found, 0, chunks);
+            if (chunks == 1) {
+                expand.compute();
+            } else {
+                pool.invoke(expand);
+            }
+            int tail = to;
+            for (int[] vertices : found) {
+                // the first entry of each chunk holds the number of vertices it found
+                System.arraycopy(vertices, 1, order, tail, vertices[0]);
+                tail += vertices[0];
+            }
+            offsets[++levels] = tail;
+        }
+        // the last level found is empty
+        return new BreadthFirstLevels<>(vertexAt, indexOf, Arrays.copyOf(order, offsets[levels]),
+                Arrays.copyOf(offsets, levels), distance);
+    }
+
+    /**
+     * Sets the bit of the vertex in the bitmap
+     *
+     * @return true iff the bit was clear, that is, the caller is the first to visit the vertex
+     */
+    private static boolean visit(AtomicIntegerArray visited, int v) {
+        int word = v >>> 5;
+        int bit = 1 << (v & 31);
+        int bits;
+        do {
+            bits = visited.get(word);
+            if ((bits & bit) != 0) {
+                return false;
+            }
+        } while (!visited.compareAndSet(word, bits, bits | bit));
+        return true;
+    }
+
+    /**
+     * Expands the chunks [first, last) of the frontier order[from, to), storing the vertices each chunk claimed
+     * in found, preceded by their number
+     */
+    private static final class Expand extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CompactDigraph graph;
+        private final AtomicIntegerArray visited;
+        private final int[] distance;
+        private final int[] order;
+        private final int from;
+        private final int to;
+        private final int level;
+        private final int[][] found;
+        private final int first;
+        private final int last;
+
+        Expand(CompactDigraph graph, AtomicIntegerArray visited, int[] distance, int[] order, int from, int to,
+               int level, int[][] found, int first, int last) {
+            this.graph = graph;
+            this.visited = visited;
+            this.distance = distance;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+            this.level = level;
+            this.found = found;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(new Expand(graph, visited, distance, order, from, to, level, found, first, middle),
+                        new Expand(graph, visited, distance, order, from, to, level, found, middle, last));
+                return;
+            }
+            int[] vertices = new int[1 + CHUNK];
+            int count = 0;
+            for (int i = from + first * CHUNK; i < Math.min(to, from + last * CHUNK); i++) {
+                int v = order[i];
+                for (int e = 0; e < graph.outDegreeOf(v); e++) {
+                    int w = graph.getSuccessor(v, e);
+                    if (visit(visited, w)) {
+                        distance[w] = level;
+                        if (++count == vertices.length) {
+                            vertices = Arrays.copyOf(vertices, vertices.length * 2);
+                        }
+                        vertices[count] = w;
+                    }
+                }
+            }
+            vertices[0] = count;
+            found[first] = vertices;
+        }
+    }
+
+    /**
+     * @return number of levels, the source being the only vertex of level 0
+     */
+    public int getLevelCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @param level a level, from 0 to {@link #getLevelCount()} - 1
+     * @return the vertices at the given distance from the source
+     * @throws IndexOutOfBoundsException if there is no such level
+     */
+    public List<V> getLevel(int level) {
+        if (level < 0 || level >= getLevelCount()) {
+            throw new IndexOutOfBoundsException("no such level: " + level);
+        }
+        return vertices(offsets[level], offsets[level + 1]);
+    }
+
+    /**
+     * @return all levels, by increasing distance from the source
+     */
+    public List<List<V>> getLevels() {
+        List<List<V>> levels = new ArrayList<>(getLevelCount());
+        for (int level = 0; level < getLevelCount(); level++) {
+            levels.add(getLevel(level));
+        }
+        return levels;
+    }
+
+    /**
+     * @return all vertices reachable from the source, the source included, by increasing distance from it
+     */
+    public List<V> getReachedVertices() {
+        return vertices(0, order.length);
+    }
+
+    /**
+     * @param vertex a vertex of the graph
+     * @return the number of edges on a shortest path from the source to the vertex, or -1 if it is not reachable
+     * @throws IllegalArgumentException if the vertex is not in the graph
+     */
+    public int getDistance(V vertex) {
+        return distance[indexOf.applyAsInt(vertex)];
+    }
+
+    private List<V> vertices(int from, int to) {
+        List<V> vertices = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            vertices.add(vertexAt.apply(order[i]));
+        }
+        return vertices;
+    }
+}
@@ -0,0 +1,253 @@
+package cs.technion.ac.il.sd.library;
+
+import java.util.Arrays;
+
+/**
+ * Immutable directed graph over the vertices {@code 0, 1, ..., n-1}, stored in compressed sparse row (CSR) form.
+ * <br> Unlike JGraphT graphs, no object is allocated per vertex or per edge: both the successor and the predecessor
+ * lists of all vertices are kept in two flat {@code int[]} arrays, indexed by per-vertex offset arrays.
+ * The memory footprint is therefore about 8 bytes per edge (the edge is recorded once in each direction)
+ * plus 8 bytes per vertex.
+ *
+ * <br> <br> A graph is created through a {@link Builder}, for instance:
+ * <br> {@code CompactDigraph graph = CompactDigraph.builder(3).addEdge(0, 1).addEdge(1, 2).build()}
+ * <br> Parallel edges are kept as given, self loops are allowed.
+ *
+ */
+public final class CompactDigraph {
+
+    private final int vertexCount;
+    private final int[] successorOffsets;
+    private final int[] successors;
+    private final int[] predecessorOffsets;
+    private final int[] predecessors;
+
+    private CompactDigraph(int vertexCount, int[] sources, int[] targets, int edgeCount) {
+        this.vertexCount = vertexCount;
+        this.successorOffsets = new int[vertexCount + 1];
+        this.successors = new int[edgeCount];
+        this.predecessorOffsets = new int[vertexCount + 1];
+        this.predecessors = new int[edgeCount];
+        fill(sources, targets, edgeCount, successorOffsets, successors);
+        fill(targets, sources, edgeCount, predecessorOffsets, predecessors);
+    }
+
+    /**
+     * Counting sort of the edge list by {@code from}, writing {@code to} into the adjacency array.
+     */
+    private static void fill(int[] from, int[] to, int edgeCount, int[] offsets, int[] adjacency) {
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[from[e] + 1]++;
+        }
+        for (int v = 0; v < offsets.length - 1; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int e = 0; e < edgeCount; e++) {
+            adjacency[next[from[e]]++] = to[e];
+        }
+    }
+
+    /**
+     * Creates a builder of a graph with the specified number of vertices
+     *
+     * @param vertexCount number of vertices in the graph, vertices are {@code 0..vertexCount-1}
+     * @return a builder with no edges
+     * @throws IllegalArgumentException if vertexCount is negative
+     */
+    public static Builder builder(int vertexCount) {
+        return new Builder(vertexCount);
+    }
+
+    /**
+     * @return number of vertices in the graph
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return the vertex, for mapping vertices given by callers
+     * @throws IllegalArgumentException if the vertex is null or not in the graph
+     */
+    int checkVertex(Integer vertex) {
+        if (vertex == null || vertex < 0 || vertex >= vertexCount) {
+            throw new IllegalArgumentException("no such vertex in graph: " + vertex);
+        }
+        return vertex;
+    }
+
+    /**
+     * @return number of edges in the graph
+     */
+    public int getEdgeCount() {
+        return successors.length;
+    }
+
+    /**
+     * @param vertex a vertex of the graph
+     * @return number of edges leaving the vertex
+     */
+    public int outDegreeOf(int vertex) {
+        return successorOffsets[vertex + 1] - successorOffsets[vertex];
+    }
+
+    /**
+     * @param vertex a vertex of the graph
+     * @return number of edges entering the vertex
+     */
+    public int inDegreeOf(int vertex) {
+        return predecessorOffsets[vertex + 1] - predecessorOffsets[vertex];
+    }
+
+    /**
+     * Returns the i-th successor of a vertex, that is, the target of its i-th outgoing edge
+     *
+     * @param vertex a vertex of the graph
+     * @param i index of the outgoing edge, {@code 0 <= i < outDegreeOf(vertex)}
+     * @return the target vertex of the edge
+     */
+    public int getSuccessor(int vertex, int i) {
+        return successors[successorOffsets[vertex] + i];
+    }
+
+    /**
+     * Returns the i-th predecessor of a vertex, that is, the source of its i-th incoming edge
+     *
+     * @param vertex a vertex of the graph
+     * @param i index of the incoming edge, {@code 0 <= i < inDegreeOf(vertex)}
+     * @return the source vertex of the edge
+     */
+    public int getPredecessor(int vertex, int i) {
+        return predecessors[predecessorOffsets[vertex] + i];
+    }
+
+    /**
+     * Checks whether the graph has no directed cycle, using Kahn's algorithm in O(V+E) time
+     *
+     * @return true iff graph has no cycle
+     * @see #topologicalOrder()
+     */
+    public boolean isAcyclic() {
+        return topologicalOrder().length == vertexCount;
+    }
+
+    /**
+     * Sorts the graph topologically using Kahn's algorithm, in O(V+E) time.
+     * If the graph has a cycle, the vertices on cycles and all vertices reachable from them are left out.
+     *
+     * @return the vertices in topological order, which are all vertices of the graph iff the graph has no cycle
+     */
+    public int[] topologicalOrder() {
+        return topologicalOrder(new int[vertexCount]);
+    }
+
+    /**
+     * Kahn's algorithm, leaving in inDegree the number of incoming edges of every vertex from vertices left out
+     */
+    int[] topologicalOrder(int[] inDegree) {
+        int[] order = new int[vertexCount];
+        int tail = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            inDegree[v] = inDegreeOf(v);
+            if (inDegree[v] == 0) {
+                order[tail++] = v;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int v = order[head];
+            for (int e = successorOffsets[v]; e < successorOffsets[v + 1]; e++) {
+                if (--inDegree[successors[e]] == 0) {
+                    order[tail++] = successors[e];
+                }
+            }
+        }
+        return tail == vertexCount ? order : Arrays.copyOf(order, tail);
+    }
+
+    /**
+     * Finds a directed cycle among the vertices left out by {@link #topologicalOrder(int[])}.
+     * <br> Each such vertex has an incoming edge from another one, so walking backwards along those edges
+     * must revisit a vertex; the walk from the first visit to the second is a cycle. Only the vertices left out
+     * are walked, each at most once.
+     *
+     * @param inDegree as left by {@link #topologicalOrder(int[])}
+     * @return the vertices of a cycle, each with an edge to the next and the last with an edge to the first,
+     * or an empty array if no vertex was left out
+     */
+    int[] findCycle(int[] inDegree) {
+        int start = 0;
+        while (start < vertexCount && inDegree[start] == 0) {
+            start++;
+        }
+        if (start == vertexCount) {
+            return new int[0];
+        }
+        int[] step = new int[vertexCount];
+        Arrays.fill(step, -1);
+        int[] walk = new int[vertexCount];
+        int length = 0;
+        int v = start;
+        while (step[v] == -1) {
+            step[v] = length;
+            walk[length++] = v;
+            int e = predecessorOffsets[v];
+            while (inDegree[predecessors[e]] == 0) {
+                e++;
+            }
+            v = predecessors[e];
+        }
+        int[] cycle = new int[length - step[v]];
+        for (int i = 0; i < cycle.length; i++) {
+            cycle[i] = walk[length - 1 - i];
+        }
+        return cycle;
+    }
+
+    /**
+     * Accumulates edges of a {@link CompactDigraph} in growable primitive arrays.
+     * A builder should not be used after {@link #build()} was called.
+     */
+    public static final class Builder {
+        private final int vertexCount;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private int edgeCount;
+
+        private Builder(int vertexCount) {
+            if (vertexCount < 0) {
+                throw new IllegalArgumentException("negative vertex count: " + vertexCount);
+            }
+            this.vertexCount = vertexCount;
+        }
+
+        /**
+         * Adds an edge from source to target
+         *
+         * @param source source vertex of the edge
+         * @param target target vertex of the edge
+         * @return this builder
+         * @throws IllegalArgumentException if one of the vertices is not in the graph
+         */
+        public Builder addEdge(int source, int target) {
+            if (source < 0 || source >= vertexCount || target < 0 || target >= vertexCount) {
+                throw new IllegalArgumentException("no such edge (" + source + ", " + target + ")");
+            }
+            if (edgeCount == sources.length) {
+                sources = Arrays.copyOf(sources, edgeCount * 2);
+                targets = Arrays.copyOf(targets, edgeCount * 2);
+            }
+            sources[edgeCount] = source;
+            targets[edgeCount] = target;
+            edgeCount++;
+            return this;
+        }
+
+        /**
+         * @return the immutable graph holding all edges added so far
+         */
+        public CompactDigraph build() {
+            return new CompactDigraph(vertexCount, sources, targets, edgeCount);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package cs.technion.ac.il.sd.library;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Critical path analysis of a weighted directed acyclic graph, where the weight of a vertex is the duration of
+ * the job it stands for and every edge means its target may start only once its source has finished.
+ * <br> A single pass over a topological order gives the earliest start of every vertex, and a single pass back
+ * gives its latest start - the latest time it may start without delaying the whole graph. The difference is its
+ * slack; the vertices with no slack are critical, and the heaviest path through the graph, whose weight is the
+ * makespan, is made of critical vertices only.
+ * <br> Instances are created by {@link GraphUtils#criticalPath}.
+ *
+ * @param <V> type of vertex object in the graph
+ */
+public final class CriticalPath<V> {
+
+    private final ToIntFunction<V> indexOf;
+    private final IntFunction<V> vertexAt;
+    private final long[] earliestStart;
+    private final long[] latestStart;
+    private final long makespan;
+    private final int[] path;
+
+    private CriticalPath(ToIntFunction<V> indexOf, IntFunction<V> vertexAt,
+                         long[] earliestStart, long[] latestStart, long makespan, int[] path) {
+        this.indexOf = indexOf;
+        this.vertexAt = vertexAt;
+        this.earliestStart = earliestStart;
+        this.latestStart = latestStart;
+        this.makespan = makespan;
+        this.path = path;
+    }
+
+    /**
+     * Analyzes a graph given as a {@link CompactDigraph}, in O(V+E) time
+     *
+     * @param graph the graph
+     * @param weights weight of every vertex of the graph
+     * @param indexOf index of a vertex in the graph
+     * @param vertexAt vertex at an index in the graph
+     * @return the analysis, or Optional.empty if the graph has a cycle
+     * @throws IllegalArgumentException if a weight is negative
+     */
+    static <V> Optional<CriticalPath<V>> of(CompactDigraph graph, long[] weights,
+                                            ToIntFunction<V> indexOf, IntFunction<V> vertexAt) {
+        int n = graph.getVertexCount();
+        for (int v = 0; v < n; v++) {
+            if (weights[v] < 0) {
+                throw new IllegalArgumentException("negative weight " + weights[v] + " of " + vertexAt.apply(v));
+            }
+        }
+        int[] order = graph.topologicalOrder();
+        if (order.length < n) {
+            return Optional.empty();
+        }
+
+        long[] earliestStart = new long[n];
+        long makespan = 0;
+        int last = -1;
+        for (int v : order) {
+            long finish = earliestStart[v] + weights[v];
+            for (int i = 0; i < graph.outDegreeOf(v); i++) {
+                int s = graph.getSuccessor(v, i);
+                earliestStart[s] = Math.max(earliestStart[s], finish);
+            }
+            if (last == -1 || finish > makespan) {
+                makespan = finish;
+                last = v;
+            }
+        }
+
+        long[] latestStart = new long[n];
+        for (int k = n - 1; k >= 0; k--) {
+            int v = order[k];
+            long latestFinish = makespan;
+            for (int i = 0; i < graph.outDegreeOf(v); i++) {
+                latestFinish = Math.min(latestFinish, latestStart[graph.getSuccessor(v, i)]);
+            }
+            latestStart[v] = latestFinish - weights[v];
+        }
+
+        return Optional.of(new CriticalPath<>(indexOf, vertexAt, earliestStart, latestStart, makespan,
+                path(graph, weights, earliestStart, last)));
+    }
+
+    /**
+     * Walks back from the vertex finishing last, each time to a predecessor finishing exactly when it starts
+     */
+    private static int[] path(CompactDigraph graph, long[] weights, long[] earliestStart, int last) {
+        List<Integer> path = new ArrayList<>();
+        for (int v = last; v != -1; ) {
+            path.add(v);
+            int next = -1;
+            for (int i = 0; i < graph.inDegreeOf(v) && next == -1; i++) {
+                int p = graph.getPredecessor(v, i);
+                if (earliestStart[p] + weights[p] == earliestStart[v]) {
+                    next = p;
+                }
+            }
+            v = next;
+        }
+        Collections.reverse(path);
+        return path.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return total weight of the heaviest path, that is, the earliest time all vertices can be finished
+     */
+    public long getMakespan() {
+        return makespan;
+    }
+
+    /**
+     * @return a heaviest path of the graph, from its first vertex to its last, or an empty list if the graph is empty
+     */
+    public List<V> getPath() {
+        List<V> vertices = new ArrayList<>(path.length);
+        for (int v : path) {
+            vertices.add(vertexAt.apply(v));
+        }
+        return vertices;
+    }
+
+    /**
+     * @return earliest time the vertex can start, the weight of the heaviest path leading to it
+     * @throws IllegalArgumentException if the vertex is not in the graph
+     */
+    public long getEarliestStart(V vertex) {
+        return earliestStart[indexOf.applyAsInt(vertex)];
+    }
+
+    /**
+     * @return latest time the vertex can start without increasing the makespan
+     * @throws IllegalArgumentException if the vertex is not in the graph
+     */
+    public long getLatestStart(V vertex) {
+        return latestStart[indexOf.applyAsInt(vertex)];
+    }
+
+    /**
+     * @return how long the start of the vertex can be delayed without increasing the makespan
+     * @throws IllegalArgumentException if the vertex is not in the graph
+     */
+    public long getSlack(V vertex) {
+        int v = indexOf.applyAsInt(vertex);
+        return latestStart[v] - earliestStart[v];
+    }
+
+    /**
+     * @return true iff the vertex has no slack
+     * @throws IllegalArgumentException if the vertex is not in the graph
+     */
+    public boolean isCritical(V vertex) {
+        return getSlack(vertex) == 0;
+    }
+}
@@ -5,6 +5,7 @@ import org.jgrapht.traverse.BreadthFirstIterator;
 import org.jgrapht.traverse.DepthFirstIterator;
 
 import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  *  Extension of {@link GraphUtils} graph library, focusing on different iterators\traversals on {@link DirectedGraph}.
@@ -118,4 +119,48 @@ public class GraphTraverse {
     public static <V, E> Iterator<V> bfsSingleComponent(DirectedGraph<V, E> graph, V startVertex) {
         return bfs(graph, startVertex, false);
     }
+
+    /**
+     * Searches the specified graph breadth-first from the start vertex, expanding every level in parallel on the
+     * common {@link ForkJoinPool}, see {@link BreadthFirstLevels}.
+     * The search is limited to the vertices reachable from the start vertex.
+     *
+     * @param graph  graph to search
+     * @param startVertex vertex to start BFS from
+     * @param <V> type of vertex object in the graph
+     * @param <E> type of edge object in the graph
+     * @return the vertices reachable from startVertex by level, and their distances from it
+     *
+     * @throws IllegalArgumentException if the graph is null or does not contain the specified start vertex
+     */
+    public static <V, E> BreadthFirstLevels<V> parallelBfs(DirectedGraph<V, E> graph, V startVertex) {
+        return parallelBfs(graph, startVertex, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #parallelBfs(DirectedGraph, Object)}, expanding levels on the specified pool
+     */
+    public static <V, E> BreadthFirstLevels<V> parallelBfs(DirectedGraph<V, E> graph, V startVertex,
+                                                           ForkJoinPool pool) {
+        IndexedGraph<V> indexed = IndexedGraph.of(graph);
+        return BreadthFirstLevels.of(indexed.graph(), indexed.indexOf(startVertex), pool, indexed::vertex,
+                indexed::indexOf);
+    }
+
+    /**
+     * Searches a {@link CompactDigraph} breadth-first from the start vertex, expanding every level in parallel on
+     * the common {@link ForkJoinPool}, see {@link #parallelBfs(DirectedGraph, Object)}
+     *
+     * @throws IllegalArgumentException if the graph does not contain the specified start vertex
+     */
+    public static BreadthFirstLevels<Integer> parallelBfs(CompactDigraph graph, int startVertex) {
+        return parallelBfs(graph, startVertex, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #parallelBfs(CompactDigraph, int)}, expanding levels on the specified pool
+     */
+    public static BreadthFirstLevels<Integer> parallelBfs(CompactDigraph graph, int startVertex, ForkJoinPool pool) {
+        return BreadthFirstLevels.of(graph, graph.checkVertex(startVertex), pool, v -> v, graph::checkVertex);
+    }
 }
@@ -2,14 +2,16 @@ package cs.technion.ac.il.sd.library;
 
 import com.google.common.collect.Sets;
 import org.jgrapht.DirectedGraph;
-import org.jgrapht.alg.CycleDetector;
-import org.jgrapht.traverse.TopologicalOrderIterator;
 
 import java.util.Iterator;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntToLongFunction;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * cs.technion.ac.il.sd.library.GraphUtils and cs.technion.ac.il.sd.library.GraphTraverse library based on underlying JGraphT graph library (http://jgrapht.org, http://jgrapht.org/javadoc).
@@ -37,7 +39,34 @@ public class GraphUtils {
      */
 
     public static <V, E> Optional<Iterator<V>> toposort(DirectedGraph<V, E> graph) {
-        return hasCycle(graph) ? Optional.empty() : Optional.of(new TopologicalOrderIterator<>(graph));
+        TopologicalSort<V> sort = topologicalSort(graph);
+        return sort.hasCycle() ? Optional.empty() : Optional.of(sort.getOrder().iterator());
+    }
+
+    /**
+     * Sorts a {@link DirectedGraph} topologically and detects a cycle in the same O(V+E) pass (Kahn's algorithm).
+     * If the graph has a cycle, the result holds one as a witness.
+     *
+     * @param graph graph to sort
+     * @param <V> type of vertex object in the graph
+     * @param <E> type of edge object in the graph
+     * @return the topological order of the graph, or a cycle of it
+     * @throws IllegalArgumentException if graph is null
+     */
+    public static <V, E> TopologicalSort<V> topologicalSort(DirectedGraph<V, E> graph) {
+        IndexedGraph<V> indexed = IndexedGraph.of(graph);
+        return TopologicalSort.of(indexed.graph(), indexed::vertex);
+    }
+
+    /**
+     * Sorts a {@link CompactDigraph} topologically and detects a cycle in the same O(V+E) pass,
+     * see {@link #topologicalSort(DirectedGraph)}
+     *
+     * @param graph graph to sort
+     * @return the topological order of the graph, or a cycle of it
+     */
+    public static TopologicalSort<Integer> topologicalSort(CompactDigraph graph) {
+        return TopologicalSort.of(graph, v -> v);
     }
 
     /**
@@ -49,7 +78,34 @@ public class GraphUtils {
      * @return true iff graph has cycle
      */
     public static <V, E> boolean hasCycle(DirectedGraph<V, E> graph) {
-        return new CycleDetector<>(graph).detectCycles();
+        return topologicalSort(graph).hasCycle();
+    }
+
+    /**
+     * Finds the strongly connected components of a {@link DirectedGraph} in a single O(V+E) pass (Tarjan's
+     * algorithm, run iteratively so that deep graphs don't overflow the stack). Every cycle of the graph lies in one
+     * of its cyclic components, so they report all cycles at once.
+     *
+     * @param graph graph to analyze
+     * @param <V> type of vertex object in the graph
+     * @param <E> type of edge object in the graph
+     * @return the components of the graph
+     * @throws IllegalArgumentException if graph is null
+     */
+    public static <V, E> StronglyConnectedComponents<V> stronglyConnectedComponents(DirectedGraph<V, E> graph) {
+        IndexedGraph<V> indexed = IndexedGraph.of(graph);
+        return StronglyConnectedComponents.of(indexed.graph(), indexed::vertex);
+    }
+
+    /**
+     * Finds the strongly connected components of a {@link CompactDigraph} in a single O(V+E) pass,
+     * see {@link #stronglyConnectedComponents(DirectedGraph)}
+     *
+     * @param graph graph to analyze
+     * @return the components of the graph
+     */
+    public static StronglyConnectedComponents<Integer> stronglyConnectedComponents(CompactDigraph graph) {
+        return StronglyConnectedComponents.of(graph, v -> v);
     }
 
     /**
@@ -100,6 +156,98 @@ public class GraphUtils {
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Lazy variant of {@link #getVerticesSuchThat(DirectedGraph, Predicate)}: the predicate is only evaluated as
+     * the stream is consumed, and no set is built, so taking the first match or iterating once costs no more than
+     * that. The graph must not change while the stream is consumed.
+     *
+     * @param graph the graph to operate on
+     * @param predicate predicate condition on vertices
+     * @param <V> type of vertex object in the graph
+     * @param <E> type of edge object in the graph
+     * @return stream of the vertices satisfying the given predicate in the graph
+     */
+    public static <V, E> Stream<V> streamVerticesSuchThat(DirectedGraph<V, E> graph, Predicate<V> predicate) {
+        return graph.vertexSet().stream().filter(predicate);
+    }
+
+    /**
+     * Lazy variant of {@link #getSourcesVertices(DirectedGraph)}, see
+     * {@link #streamVerticesSuchThat(DirectedGraph, Predicate)}
+     */
+    public static <V, E> Stream<V> streamSourcesVertices(DirectedGraph<V, E> graph) {
+        return streamVerticesSuchThat(graph, v -> graph.inDegreeOf(v) == 0);
+    }
+
+    /**
+     * Lazy variant of {@link #getLeafVertices(DirectedGraph)}, see
+     * {@link #streamVerticesSuchThat(DirectedGraph, Predicate)}
+     */
+    public static <V, E> Stream<V> streamLeafVertices(DirectedGraph<V, E> graph) {
+        return streamVerticesSuchThat(graph, v -> graph.outDegreeOf(v) == 0);
+    }
+
+    /**
+     * Counts the vertices that satisfy a given predicate, without collecting them
+     *
+     * @param graph the graph to operate on
+     * @param predicate predicate condition on vertices
+     * @param <V> type of vertex object in the graph
+     * @param <E> type of edge object in the graph
+     * @return number of vertices satisfying the given predicate in the graph
+     */
+    public static <V, E> long countVerticesSuchThat(DirectedGraph<V, E> graph, Predicate<V> predicate) {
+        return streamVerticesSuchThat(graph, predicate).count();
+    }
+
+    /**
+     * Checks whether some vertex satisfies a given predicate, stopping at the first that does
+     *
+     * @param graph the graph to operate on
+     * @param predicate predicate condition on vertices
+     * @param <V> type of vertex object in the graph
+     * @param <E> type of edge object in the graph
+     * @return true iff a vertex of the graph satisfies the given predicate
+     */
+    public static <V, E> boolean anyVertexSuchThat(DirectedGraph<V, E> graph, Predicate<V> predicate) {
+        return streamVerticesSuchThat(graph, predicate).findAny().isPresent();
+    }
+
+    /**
+     * Parallel variant of {@link #getVerticesSuchThat(DirectedGraph, Predicate)} for large vertex sets: the
+     * predicate is evaluated on the common {@link java.util.concurrent.ForkJoinPool} and the matches are collected
+     * into a single concurrent set, with no per-thread sets to merge.
+     * <br> The predicate must be thread safe, and the graph must not change meanwhile.
+     *
+     * @param graph the graph to operate on
+     * @param predicate predicate condition on vertices
+     * @param <V> type of vertex object in the graph
+     * @param <E> type of edge object in the graph
+     * @return set of vertices satisfying the given predicate in the graph
+     */
+    public static <V, E> Set<V> getVerticesSuchThatParallel(DirectedGraph<V, E> graph, Predicate<V> predicate) {
+        return graph.vertexSet().parallelStream()
+                .filter(predicate)
+                .collect(Collectors.toConcurrentMap(Function.identity(), v -> Boolean.TRUE))
+                .keySet();
+    }
+
+    /**
+     * Parallel variant of {@link #getSourcesVertices(DirectedGraph)},
+     * see {@link #getVerticesSuchThatParallel(DirectedGraph, Predicate)}
+     */
+    public static <V, E> Set<V> getSourcesVerticesParallel(DirectedGraph<V, E> graph) {
+        return getVerticesSuchThatParallel(graph, v -> graph.inDegreeOf(v) == 0);
+    }
+
+    /**
+     * Parallel variant of {@link #getLeafVertices(DirectedGraph)},
+     * see {@link #getVerticesSuchThatParallel(DirectedGraph, Predicate)}
+     */
+    public static <V, E> Set<V> getLeafVerticesParallel(DirectedGraph<V, E> graph) {
+        return getVerticesSuchThatParallel(graph, v -> graph.outDegreeOf(v) == 0);
+    }
+
     /**
      * Get all reachable vertices from a specified source vertex in a {@link DirectedGraph}.
      *
@@ -114,4 +262,75 @@ public class GraphUtils {
         return Sets.newHashSet(GraphTraverse.dfsSingleComponent(graph, source));
     }
 
+    /**
+     * Builds a {@link ReachabilityIndex} of a {@link DirectedGraph}, for repeated reachability queries without
+     * traversing the graph, computing its transitive closure if it takes at most
+     * {@link ReachabilityIndex#DEFAULT_CLOSURE_LIMIT} bytes.
+     * <br> The index is a snapshot: it doesn't see later changes of the graph.
+     *
+     * @param graph the graph to index
+     * @param <V> type of vertex object in the graph
+     * @param <E> type of edge object in the graph
+     * @return the index of the graph
+     * @throws IllegalArgumentException if graph is null
+     */
+    public static <V, E> ReachabilityIndex<V> reachabilityIndex(DirectedGraph<V, E> graph) {
+        return reachabilityIndex(graph, ReachabilityIndex.DEFAULT_CLOSURE_LIMIT);
+    }
+
+    /**
+     * Builds a {@link ReachabilityIndex} of a {@link DirectedGraph}, see {@link #reachabilityIndex(DirectedGraph)}
+     *
+     * @param closureLimit maximal size of the transitive closure in bytes, 0 not to compute it
+     */
+    public static <V, E> ReachabilityIndex<V> reachabilityIndex(DirectedGraph<V, E> graph, long closureLimit) {
+        IndexedGraph<V> indexed = IndexedGraph.of(graph);
+        return ReachabilityIndex.of(indexed.graph(), closureLimit, indexed::vertex, indexed::indexOf);
+    }
+
+    /**
+     * Builds a {@link ReachabilityIndex} of a {@link CompactDigraph}, see {@link #reachabilityIndex(DirectedGraph)}
+     *
+     * @param closureLimit maximal size of the transitive closure in bytes, 0 not to compute it
+     */
+    public static ReachabilityIndex<Integer> reachabilityIndex(CompactDigraph graph, long closureLimit) {
+        return ReachabilityIndex.of(graph, closureLimit, v -> v, graph::checkVertex);
+    }
+
+    /**
+     * Computes the critical path of a directed acyclic graph whose vertices are weighted by their duration,
+     * in a single topological pass plus a single pass back, O(V+E) time.
+     * <br> The result gives the makespan (weight of the heaviest path), one heaviest path, and for every vertex
+     * its earliest start, latest start and slack.
+     *
+     * @param graph the graph to analyze
+     * @param weight weight (duration) of each vertex, must not be negative
+     * @param <V> type of vertex object in the graph
+     * @param <E> type of edge object in the graph
+     * @return Optional critical path analysis of the graph OR Optional.empty if the graph has a cycle
+     * @throws IllegalArgumentException if the graph is null or a weight is negative
+     */
+    public static <V, E> Optional<CriticalPath<V>> criticalPath(DirectedGraph<V, E> graph, ToLongFunction<V> weight) {
+        IndexedGraph<V> indexed = IndexedGraph.of(graph);
+        long[] weights = indexed.vertices().stream().mapToLong(weight).toArray();
+        return CriticalPath.of(indexed.graph(), weights, indexed::indexOf, indexed::vertex);
+    }
+
+    /**
+     * Computes the critical path of a {@link CompactDigraph} whose vertices are weighted by their duration,
+     * see {@link #criticalPath(DirectedGraph, ToLongFunction)}
+     *
+     * @param graph the graph to analyze
+     * @param weight weight (duration) of each vertex, must not be negative
+     * @return Optional critical path analysis of the graph OR Optional.empty if the graph has a cycle
+     * @throws IllegalArgumentException if a weight is negative
+     */
+    public static Optional<CriticalPath<Integer>> criticalPath(CompactDigraph graph, IntToLongFunction weight) {
+        long[] weights = new long[graph.getVertexCount()];
+        for (int v = 0; v < weights.length; v++) {
+            weights[v] = weight.applyAsLong(v);
+        }
+        return CriticalPath.of(graph, weights, graph::checkVertex, v -> v);
+    }
+
 }
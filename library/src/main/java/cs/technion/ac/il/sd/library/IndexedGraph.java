@@ -0,0 +1,70 @@
+package cs.technion.ac.il.sd.library;
+
+import org.jgrapht.DirectedGraph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of a {@link DirectedGraph} as a {@link CompactDigraph}, together with the mapping between its vertices
+ * and their indices, so that algorithms can run over primitive arrays and report their results as vertices.
+ * <br> Vertices are indexed in the iteration order of the graph's vertex set.
+ *
+ * @param <V> type of vertex object in the graph
+ */
+final class IndexedGraph<V> {
+
+    private final List<V> vertices;
+    private final Map<V, Integer> index;
+    private final CompactDigraph graph;
+
+    private IndexedGraph(List<V> vertices, Map<V, Integer> index, CompactDigraph graph) {
+        this.vertices = vertices;
+        this.index = index;
+        this.graph = graph;
+    }
+
+    /**
+     * @throws IllegalArgumentException if graph is null
+     */
+    static <V, E> IndexedGraph<V> of(DirectedGraph<V, E> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph is null");
+        }
+        List<V> vertices = new ArrayList<>(graph.vertexSet());
+        Map<V, Integer> index = new HashMap<>(vertices.size() * 2);
+        for (int i = 0; i < vertices.size(); i++) {
+            index.put(vertices.get(i), i);
+        }
+        CompactDigraph.Builder builder = CompactDigraph.builder(vertices.size());
+        for (E edge : graph.edgeSet()) {
+            builder.addEdge(index.get(graph.getEdgeSource(edge)), index.get(graph.getEdgeTarget(edge)));
+        }
+        return new IndexedGraph<>(vertices, index, builder.build());
+    }
+
+    CompactDigraph graph() {
+        return graph;
+    }
+
+    V vertex(int i) {
+        return vertices.get(i);
+    }
+
+    List<V> vertices() {
+        return vertices;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the vertex is not in the graph
+     */
+    int indexOf(V vertex) {
+        Integer i = index.get(vertex);
+        if (i == null) {
+            throw new IllegalArgumentException("no such vertex in graph: " + vertex);
+        }
+        return i;
+    }
+}
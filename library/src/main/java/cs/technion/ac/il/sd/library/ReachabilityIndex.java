@@ -0,0 +1,201 @@
+package cs.technion.ac.il.sd.library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Index of a directed graph answering "does u reach v" and "what does u reach" without traversing the graph,
+ * built once for repeated queries on a graph that doesn't change.
+ * <br> The graph is first condensed into the DAG of its {@link StronglyConnectedComponents}, since all vertices of
+ * a component reach the same vertices. Components are numbered in reverse topological order, so every component
+ * only reaches components with a lower number, and each component c gets the interval label
+ * {@code [low(c), c]}, low(c) being the lowest component it reaches: a component outside that interval is
+ * certainly not reached.
+ * <br> If the transitive closure of the condensation fits the size limit given when building the index, one bit per
+ * pair of components, it is computed as well, and both queries read it: {@link #reaches} tests a single bit, and
+ * {@link #getDescendants} lists the set bits. Otherwise {@link #reaches} answers from the interval labels when they
+ * rule a component out, and otherwise searches the condensation, only entering components whose interval contains
+ * the target; {@link #getDescendants} then searches the condensation.
+ * <br> An index is immutable and may be queried from any number of threads.
+ * Instances are created by {@link GraphUtils#reachabilityIndex}.
+ *
+ * @param <V> type of vertex object in the graph
+ */
+public final class ReachabilityIndex<V> {
+
+    /**
+     * Default limit of the size of the transitive closure, in bytes
+     */
+    public static final long DEFAULT_CLOSURE_LIMIT = 64L << 20;
+
+    private final IntFunction<V> vertexAt;
+    private final ToIntFunction<V> indexOf;
+    private final int[] componentOf;
+    private final int[] members;
+    private final int[] offsets;
+    private final CompactDigraph condensation;
+    private final int[] low;
+    private final int words;
+    private final long[] closure;
+
+    private ReachabilityIndex(IntFunction<V> vertexAt, ToIntFunction<V> indexOf, int[] componentOf, int[] members,
+                              int[] offsets, CompactDigraph condensation, int[] low, int words, long[] closure) {
+        this.vertexAt = vertexAt;
+        this.indexOf = indexOf;
+        this.componentOf = componentOf;
+        this.members = members;
+        this.offsets = offsets;
+        this.condensation = condensation;
+        this.low = low;
+        this.words = words;
+        this.closure = closure;
+    }
+
+    static <V> ReachabilityIndex<V> of(CompactDigraph graph, long closureLimit, IntFunction<V> vertexAt,
+                                       ToIntFunction<V> indexOf) {
+        StronglyConnectedComponents<V> components = StronglyConnectedComponents.of(graph, vertexAt);
+        int count = components.getComponentCount();
+        int[] componentOf = new int[graph.getVertexCount()];
+        for (int v = 0; v < componentOf.length; v++) {
+            componentOf[v] = components.componentOf(v);
+        }
+        CompactDigraph.Builder builder = CompactDigraph.builder(count);
+        for (int v = 0; v < componentOf.length; v++) {
+            for (int i = 0; i < graph.outDegreeOf(v); i++) {
+                int target = componentOf[graph.getSuccessor(v, i)];
+                if (target != componentOf[v]) {
+                    builder.addEdge(componentOf[v], target);
+                }
+            }
+        }
+        CompactDigraph condensation = builder.build();
+
+        // successors have lower numbers, so they are labeled first
+        int[] low = new int[count];
+        for (int c = 0; c < count; c++) {
+            low[c] = c;
+            for (int i = 0; i < condensation.outDegreeOf(c); i++) {
+                low[c] = Math.min(low[c], low[condensation.getSuccessor(c, i)]);
+            }
+        }
+
+        int words = (count + 63) >>> 6;
+        long size = (long) count * words;
+        long[] closure = null;
+        if (size * Long.BYTES <= closureLimit && size <= Integer.MAX_VALUE) {
+            closure = new long[(int) size];
+            for (int c = 0; c < count; c++) {
+                int row = c * words;
+                closure[row + (c >>> 6)] |= 1L << c;
+                for (int i = 0; i < condensation.outDegreeOf(c); i++) {
+                    int d = condensation.getSuccessor(c, i);
+                    // the closure of d lies within its interval label
+                    for (int w = low[d] >>> 6; w <= d >>> 6; w++) {
+                        closure[row + w] |= closure[d * words + w];
+                    }
+                }
+            }
+        }
+        return new ReachabilityIndex<>(vertexAt, indexOf, componentOf, components.members(), components.offsets(),
+                condensation, low, words, closure);
+    }
+
+    /**
+     * @return true iff the transitive closure fit the size limit, so that queries don't search the graph
+     */
+    public boolean hasClosure() {
+        return closure != null;
+    }
+
+    /**
+     * @param source a vertex of the graph
+     * @param target a vertex of the graph
+     * @return true iff there is a path from source to target; a vertex reaches itself
+     * @throws IllegalArgumentException if a vertex is not in the graph
+     */
+    public boolean reaches(V source, V target) {
+        int from = componentOf[indexOf.applyAsInt(source)];
+        int to = componentOf[indexOf.applyAsInt(target)];
+        if (from == to) {
+            return true;
+        }
+        if (to > from || to < low[from]) {
+            return false;
+        }
+        if (closure != null) {
+            return (closure[from * words + (to >>> 6)] & 1L << to) != 0;
+        }
+        BitSet seen = new BitSet();
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = from;
+        seen.set(from);
+        while (size > 0) {
+            int c = stack[--size];
+            for (int i = 0; i < condensation.outDegreeOf(c); i++) {
+                int d = condensation.getSuccessor(c, i);
+                if (d == to) {
+                    return true;
+                }
+                if (low[d] <= to && to < d && !seen.get(d)) {
+                    seen.set(d);
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    stack[size++] = d;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param source a vertex of the graph
+     * @return all vertices reachable from source, source included, as
+     * {@link GraphUtils#getAllReachableVerticesFromSource} finds them
+     * @throws IllegalArgumentException if the vertex is not in the graph
+     */
+    public List<V> getDescendants(V source) {
+        int from = componentOf[indexOf.applyAsInt(source)];
+        List<V> descendants = new ArrayList<>();
+        if (closure != null) {
+            int row = from * words;
+            for (int w = low[from] >>> 6; w <= from >>> 6; w++) {
+                for (long bits = closure[row + w]; bits != 0; bits &= bits - 1) {
+                    addMembers((w << 6) + Long.numberOfTrailingZeros(bits), descendants);
+                }
+            }
+            return descendants;
+        }
+        BitSet seen = new BitSet();
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = from;
+        seen.set(from);
+        while (size > 0) {
+            int c = stack[--size];
+            addMembers(c, descendants);
+            for (int i = 0; i < condensation.outDegreeOf(c); i++) {
+                int d = condensation.getSuccessor(c, i);
+                if (!seen.get(d)) {
+                    seen.set(d);
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    stack[size++] = d;
+                }
+            }
+        }
+        return descendants;
+    }
+
+    private void addMembers(int component, List<V> vertices) {
+        for (int i = offsets[component]; i < offsets[component + 1]; i++) {
+            vertices.add(vertexAt.apply(members[i]));
+        }
+    }
+}
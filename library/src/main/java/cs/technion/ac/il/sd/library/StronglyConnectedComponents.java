@@ -0,0 +1,179 @@
+package cs.technion.ac.il.sd.library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Strongly connected components of a directed graph, found by Tarjan's algorithm in a single O(V+E) pass.
+ * <br> The depth-first search runs on explicit {@code int[]} stacks rather than on the call stack, so the depth of
+ * the graph is not limited by the thread's stack size - a chain of a million vertices is fine.
+ * <br> A component is cyclic if it has more than one vertex, or a single vertex with a self loop; the graph has a
+ * cycle iff it has a cyclic component, and every cycle of the graph lies within one of them.
+ * <br> Instances are created by {@link GraphUtils#stronglyConnectedComponents}.
+ *
+ * @param <V> type of vertex object in the graph
+ */
+public final class StronglyConnectedComponents<V> {
+
+    private final IntFunction<V> vertexAt;
+    private final int[] componentOf;
+    private final int[] members;
+    private final int[] offsets;
+    private final boolean[] cyclic;
+
+    private StronglyConnectedComponents(IntFunction<V> vertexAt, int[] componentOf, int[] members, int[] offsets,
+                                        boolean[] cyclic) {
+        this.vertexAt = vertexAt;
+        this.componentOf = componentOf;
+        this.members = members;
+        this.offsets = offsets;
+        this.cyclic = cyclic;
+    }
+
+    static <V> StronglyConnectedComponents<V> of(CompactDigraph graph, IntFunction<V> vertexAt) {
+        int n = graph.getVertexCount();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] next = new int[n];
+        int[] componentOf = new int[n];
+        int[] path = new int[n];
+        int[] stack = new int[n];
+        int[] members = new int[n];
+        int[] offsets = new int[n + 1];
+        Arrays.fill(index, -1);
+        Arrays.fill(componentOf, -1);
+        int visited = 0;
+        int stackSize = 0;
+        int memberCount = 0;
+        int components = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            index[root] = low[root] = visited++;
+            stack[stackSize++] = root;
+            path[0] = root;
+            int depth = 1;
+            while (depth > 0) {
+                int v = path[depth - 1];
+                if (next[v] < graph.outDegreeOf(v)) {
+                    int w = graph.getSuccessor(v, next[v]++);
+                    if (index[w] == -1) {
+                        index[w] = low[w] = visited++;
+                        stack[stackSize++] = w;
+                        path[depth++] = w;
+                    } else if (componentOf[w] == -1) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        componentOf[w] = components;
+                        members[memberCount++] = w;
+                    } while (w != v);
+                    offsets[++components] = memberCount;
+                }
+            }
+        }
+        boolean[] cyclic = new boolean[components];
+        for (int c = 0; c < components; c++) {
+            cyclic[c] = offsets[c + 1] - offsets[c] > 1 || hasSelfLoop(graph, members[offsets[c]]);
+        }
+        return new StronglyConnectedComponents<>(vertexAt, componentOf, members,
+                Arrays.copyOf(offsets, components + 1), cyclic);
+    }
+
+    private static boolean hasSelfLoop(CompactDigraph graph, int v) {
+        for (int i = 0; i < graph.outDegreeOf(v); i++) {
+            if (graph.getSuccessor(v, i) == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of components, trivial ones included
+     */
+    public int getComponentCount() {
+        return cyclic.length;
+    }
+
+    /**
+     * @return true iff the graph has a cycle
+     */
+    public boolean hasCycle() {
+        for (boolean c : cyclic) {
+            if (c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return all components, in reverse topological order of the graph of components: no component has an edge
+     * to a component following it
+     */
+    public List<List<V>> getComponents() {
+        List<List<V>> components = new ArrayList<>(cyclic.length);
+        for (int c = 0; c < cyclic.length; c++) {
+            components.add(component(c));
+        }
+        return components;
+    }
+
+    /**
+     * @return the cyclic components, in the order of {@link #getComponents()}, or an empty list if the graph has
+     * no cycle
+     */
+    public List<List<V>> getCyclicComponents() {
+        List<List<V>> components = new ArrayList<>();
+        for (int c = 0; c < cyclic.length; c++) {
+            if (cyclic[c]) {
+                components.add(component(c));
+            }
+        }
+        return components;
+    }
+
+    /**
+     * @return index of the component of the vertex, in the order of {@link #getComponents()}
+     */
+    int componentOf(int v) {
+        return componentOf[v];
+    }
+
+    /**
+     * @return the vertices of every component, component after component
+     */
+    int[] members() {
+        return members;
+    }
+
+    /**
+     * @return bounds of the components in {@link #members()}: component c is {@code members()[offsets()[c]]} to
+     * {@code members()[offsets()[c + 1] - 1]}
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    private List<V> component(int c) {
+        List<V> vertices = new ArrayList<>(offsets[c + 1] - offsets[c]);
+        for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+            vertices.add(vertexAt.apply(members[i]));
+        }
+        return vertices;
+    }
+}
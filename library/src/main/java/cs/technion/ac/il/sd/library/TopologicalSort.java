@@ -0,0 +1,65 @@
+package cs.technion.ac.il.sd.library;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Result of sorting a directed graph topologically with Kahn's algorithm: either a topological order of all
+ * vertices, or, if the graph has a cycle, one cycle as a witness.
+ * <br> The order and the cycle come from the same O(V+E) pass over the graph; finding the cycle only walks the
+ * vertices the pass could not order.
+ * <br> Instances are created by {@link GraphUtils#topologicalSort}.
+ *
+ * @param <V> type of vertex object in the graph
+ */
+public final class TopologicalSort<V> {
+
+    private final IntFunction<V> vertexAt;
+    private final int[] order;
+    private final int[] cycle;
+
+    private TopologicalSort(IntFunction<V> vertexAt, int[] order, int[] cycle) {
+        this.vertexAt = vertexAt;
+        this.order = order;
+        this.cycle = cycle;
+    }
+
+    static <V> TopologicalSort<V> of(CompactDigraph graph, IntFunction<V> vertexAt) {
+        int[] inDegree = new int[graph.getVertexCount()];
+        int[] order = graph.topologicalOrder(inDegree);
+        int[] cycle = order.length == graph.getVertexCount() ? new int[0] : graph.findCycle(inDegree);
+        return new TopologicalSort<>(vertexAt, order, cycle);
+    }
+
+    /**
+     * @return true iff the graph has a cycle
+     */
+    public boolean hasCycle() {
+        return cycle.length > 0;
+    }
+
+    /**
+     * @return all vertices of the graph in topological order if it has no cycle, otherwise the vertices that are
+     * neither on a cycle nor reachable from one, in topological order
+     */
+    public List<V> getOrder() {
+        return vertices(order);
+    }
+
+    /**
+     * @return the vertices of a cycle of the graph, each with an edge to the next and the last with an edge
+     * to the first, or an empty list if the graph has no cycle
+     */
+    public List<V> getCycle() {
+        return vertices(cycle);
+    }
+
+    private List<V> vertices(int[] indices) {
+        List<V> vertices = new ArrayList<>(indices.length);
+        for (int v : indices) {
+            vertices.add(vertexAt.apply(v));
+        }
+        return vertices;
+    }
+}
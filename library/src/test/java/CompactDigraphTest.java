@@ -0,0 +1,112 @@
+import cs.technion.ac.il.sd.library.CompactDigraph;
+import cs.technion.ac.il.sd.library.GraphUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Test file for {@link CompactDigraph}
+ */
+public class CompactDigraphTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    private static Set<Integer> successorsOf(CompactDigraph graph, int vertex) {
+        Set<Integer> $ = new HashSet<>();
+        for (int i = 0; i < graph.outDegreeOf(vertex); i++) {
+            $.add(graph.getSuccessor(vertex, i));
+        }
+        return $;
+    }
+
+    private static Set<Integer> predecessorsOf(CompactDigraph graph, int vertex) {
+        Set<Integer> $ = new HashSet<>();
+        for (int i = 0; i < graph.inDegreeOf(vertex); i++) {
+            $.add(graph.getPredecessor(vertex, i));
+        }
+        return $;
+    }
+
+    @Test
+    public void adjacencyIsCorrect() {
+        CompactDigraph graph = CompactDigraph.builder(4)
+                .addEdge(1, 2).addEdge(1, 3).addEdge(3, 0).addEdge(2, 0)
+                .build();
+        Assert.assertEquals(4, graph.getVertexCount());
+        Assert.assertEquals(4, graph.getEdgeCount());
+        Assert.assertEquals(new HashSet<>(Arrays.asList(2, 3)), successorsOf(graph, 1));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(3, 2)), predecessorsOf(graph, 0));
+        Assert.assertEquals(0, graph.outDegreeOf(0));
+        Assert.assertEquals(0, graph.inDegreeOf(1));
+    }
+
+    @Test
+    public void emptyGraphIsAcyclic() {
+        Assert.assertTrue(CompactDigraph.builder(0).build().isAcyclic());
+    }
+
+    @Test
+    public void chainIsAcyclic() {
+        CompactDigraph.Builder builder = CompactDigraph.builder(100000);
+        for (int i = 1; i < 100000; i++) {
+            builder.addEdge(i - 1, i);
+        }
+        Assert.assertTrue(builder.build().isAcyclic());
+    }
+
+    @Test
+    public void cycleIsDetected() {
+        CompactDigraph graph = CompactDigraph.builder(4)
+                .addEdge(0, 1).addEdge(0, 2).addEdge(2, 3).addEdge(3, 0)
+                .build();
+        Assert.assertFalse(graph.isAcyclic());
+    }
+
+    @Test
+    public void selfLoopIsDetected() {
+        Assert.assertFalse(CompactDigraph.builder(1).addEdge(0, 0).build().isAcyclic());
+    }
+
+    @Test
+    public void topologicalOrderOmitsCycleAndItsDescendants() {
+        CompactDigraph graph = CompactDigraph.builder(5)
+                .addEdge(4, 0).addEdge(0, 1).addEdge(1, 2).addEdge(2, 1).addEdge(2, 3)
+                .build();
+        Assert.assertArrayEquals(new int[]{4, 0}, graph.topologicalOrder());
+    }
+
+    @Test
+    public void cycleWitnessSkipsVerticesReachableFromCycle() {
+        CompactDigraph graph = CompactDigraph.builder(6)
+                .addEdge(0, 1).addEdge(1, 2).addEdge(2, 3).addEdge(3, 1).addEdge(3, 4).addEdge(4, 5).addEdge(0, 5)
+                .build();
+        Assert.assertEquals(Arrays.asList(1, 2, 3), rotateToMin(GraphUtils.topologicalSort(graph).getCycle()));
+        Assert.assertEquals(Collections.singletonList(0),
+                GraphUtils.topologicalSort(CompactDigraph.builder(1).addEdge(0, 0).build()).getCycle());
+    }
+
+    private static List<Integer> rotateToMin(List<Integer> cycle) {
+        List<Integer> rotated = new ArrayList<>(cycle);
+        Collections.rotate(rotated, -rotated.indexOf(Collections.min(rotated)));
+        return rotated;
+    }
+
+    @Test
+    public void edgeOutsideGraphThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        CompactDigraph.builder(2).addEdge(0, 2);
+    }
+}
@@ -1,6 +1,12 @@
 import com.google.common.collect.Lists;
+import cs.technion.ac.il.sd.library.BreadthFirstLevels;
+import cs.technion.ac.il.sd.library.CompactDigraph;
+import cs.technion.ac.il.sd.library.CriticalPath;
 import cs.technion.ac.il.sd.library.GraphTraverse;
 import cs.technion.ac.il.sd.library.GraphUtils;
+import cs.technion.ac.il.sd.library.ReachabilityIndex;
+import cs.technion.ac.il.sd.library.StronglyConnectedComponents;
+import cs.technion.ac.il.sd.library.TopologicalSort;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.experimental.dag.DirectedAcyclicGraph;
 import org.jgrapht.graph.DefaultDirectedGraph;
@@ -13,6 +19,8 @@ import org.junit.rules.ExpectedException;
 import org.junit.rules.Timeout;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -286,6 +294,43 @@ public class GraphUtilsTest {
         Assert.assertEquals(inDegreeOf1, new HashSet<>(Arrays.asList(2,3,4)));
     }
 
+    @Test
+    public void lazyPredicateVariantsMatchSet() {
+        Predicate<Integer> inDegreeOf1 = v -> smallGraph.inDegreeOf(v) == 1;
+        Assert.assertEquals(new HashSet<>(Arrays.asList(2,3,4)),
+                GraphUtils.streamVerticesSuchThat(smallGraph, inDegreeOf1).collect(Collectors.toSet()));
+        Assert.assertEquals(3, GraphUtils.countVerticesSuchThat(smallGraph, inDegreeOf1));
+        Assert.assertTrue(GraphUtils.anyVertexSuchThat(smallGraph, inDegreeOf1));
+        Assert.assertFalse(GraphUtils.anyVertexSuchThat(smallGraph, v -> smallGraph.inDegreeOf(v) > 1));
+        Assert.assertEquals(GraphUtils.getSourcesVertices(complexGraph),
+                GraphUtils.streamSourcesVertices(complexGraph).collect(Collectors.toSet()));
+        Assert.assertEquals(GraphUtils.getLeafVertices(complexGraph),
+                GraphUtils.streamLeafVertices(complexGraph).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void anyVertexSuchThatStopsAtFirstMatch() {
+        int[] evaluated = new int[1];
+        Assert.assertTrue(GraphUtils.anyVertexSuchThat(complexGraph, v -> ++evaluated[0] > 0));
+        Assert.assertEquals(1, evaluated[0]);
+    }
+
+    @Test
+    public void parallelVariantsMatchSequential() {
+        DirectedGraph<Integer, DefaultEdge> graph = new DefaultDirectedGraph<>(DefaultEdge.class);
+        Random random = new Random(3);
+        for (int v = 0; v < 50000; v++) {
+            graph.addVertex(v);
+        }
+        for (int e = 0; e < 50000; e++) {
+            graph.addEdge(random.nextInt(50000), random.nextInt(50000));
+        }
+        Assert.assertEquals(GraphUtils.getSourcesVertices(graph), GraphUtils.getSourcesVerticesParallel(graph));
+        Assert.assertEquals(GraphUtils.getLeafVertices(graph), GraphUtils.getLeafVerticesParallel(graph));
+        Assert.assertEquals(GraphUtils.getVerticesSuchThat(graph, v -> v % 7 == 0),
+                GraphUtils.getVerticesSuchThatParallel(graph, v -> v % 7 == 0));
+    }
+
 
     /************ BFS ************/
 
@@ -362,6 +407,65 @@ public class GraphUtilsTest {
         GraphTraverse.bfsCrossComponent(g, null).forEachRemaining(verteicesList::add);
         Assert.assertEquals(verteicesList.stream().collect(Collectors.toSet()), new HashSet<>(Arrays.asList(0,1,2)));
     }
+    @Test
+    public void parallelBfsOnBinaryTreeReturnsLevels()
+    {
+        BreadthFirstLevels<Integer> levels = GraphTraverse.parallelBfs(binaryTree, -1);
+        Assert.assertEquals(6, levels.getLevelCount());
+        Assert.assertEquals(Collections.singletonList(-1), levels.getLevel(0));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(0, 1)), new HashSet<>(levels.getLevel(1)));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(8, 9)), new HashSet<>(levels.getLevel(5)));
+        Assert.assertEquals(5, levels.getDistance(9));
+        Assert.assertEquals(-1, GraphTraverse.parallelBfs(binaryTree, 2).getDistance(3));
+    }
+
+    @Test
+    public void parallelBfsMatchesSequentialDistances()
+    {
+        int vertexCount = 200_000;
+        Random random = new Random(7);
+        CompactDigraph.Builder builder = CompactDigraph.builder(vertexCount);
+        for (int e = 0; e < 4 * vertexCount; e++) {
+            builder.addEdge(random.nextInt(vertexCount), random.nextInt(vertexCount));
+        }
+        CompactDigraph graph = builder.build();
+        int[] expected = new int[vertexCount];
+        Arrays.fill(expected, -1);
+        expected[0] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>(Collections.singleton(0));
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            for (int i = 0; i < graph.outDegreeOf(v); i++) {
+                int w = graph.getSuccessor(v, i);
+                if (expected[w] == -1) {
+                    expected[w] = expected[v] + 1;
+                    queue.add(w);
+                }
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BreadthFirstLevels<Integer> levels = GraphTraverse.parallelBfs(graph, 0, pool);
+        pool.shutdown();
+        Set<Integer> reached = new HashSet<>(levels.getReachedVertices());
+        Assert.assertEquals(levels.getReachedVertices().size(), reached.size());
+        for (int v = 0; v < vertexCount; v++) {
+            Assert.assertEquals(expected[v], levels.getDistance(v));
+            Assert.assertEquals(expected[v] != -1, reached.contains(v));
+        }
+        for (int level = 0; level < levels.getLevelCount(); level++) {
+            for (int v : levels.getLevel(level)) {
+                Assert.assertEquals(level, expected[v]);
+            }
+        }
+    }
+
+    @Test
+    public void parallelBfsOnAbsentStartVertexThrowsException()
+    {
+        thrown.expect(IllegalArgumentException.class);
+        GraphTraverse.parallelBfs(cyclicGraph, 0);
+    }
+
     @Test
     public void reachableVerticesComplexGraphCorrect()
     {
@@ -383,6 +487,170 @@ public class GraphUtilsTest {
                 new HashSet<>(Collections.singletonList(9)));
     }
 
+    @Test
+    public void criticalPathComplexGraphCorrect()
+    {
+        CriticalPath<Integer> criticalPath = GraphUtils.criticalPath(complexGraph, v -> v).get();
+        Assert.assertEquals(28, criticalPath.getMakespan());
+        Assert.assertEquals(Arrays.asList(7, 11, 10), criticalPath.getPath());
+        Assert.assertEquals(18, criticalPath.getEarliestStart(9));
+        Assert.assertEquals(19, criticalPath.getLatestStart(9));
+        Assert.assertEquals(4, criticalPath.getSlack(8));
+        Assert.assertEquals(2, criticalPath.getSlack(5));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(7, 11, 10)),
+                GraphUtils.getVerticesSuchThat(complexGraph, criticalPath::isCritical));
+    }
 
-}
+    @Test
+    public void criticalPathEmptyGraphIsEmpty()
+    {
+        CriticalPath<Integer> criticalPath = GraphUtils.criticalPath(emptyGraph, v -> 1).get();
+        Assert.assertEquals(0, criticalPath.getMakespan());
+        Assert.assertTrue(criticalPath.getPath().isEmpty());
+    }
+
+    @Test
+    public void criticalPathOfCyclicGraphFails()
+    {
+        Assert.assertFalse(GraphUtils.criticalPath(cyclicGraph, v -> 1).isPresent());
+    }
+
+    @Test
+    public void criticalPathNegativeWeightThrows()
+    {
+        thrown.expect(IllegalArgumentException.class);
+        GraphUtils.criticalPath(smallGraph, v -> -v);
+    }
 
+    @Test
+    public void topologicalSortComplexGraphIsValid()
+    {
+        TopologicalSort<Integer> sort = GraphUtils.topologicalSort(complexGraph);
+        Assert.assertFalse(sort.hasCycle());
+        Assert.assertTrue(sort.getCycle().isEmpty());
+        Assert.assertTrue(toposortInvariant(complexGraph, sort.getOrder().iterator()));
+    }
+
+    @Test
+    public void topologicalSortCyclicGraphHasCycleWitness()
+    {
+        TopologicalSort<Integer> sort = GraphUtils.topologicalSort(cyclicGraph);
+        Assert.assertTrue(sort.hasCycle());
+        List<Integer> cycle = sort.getCycle();
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 3, 4)), new HashSet<>(cycle));
+        for (int i = 0; i < cycle.size(); i++) {
+            Assert.assertTrue(cyclicGraph.containsEdge(cycle.get(i), cycle.get((i + 1) % cycle.size())));
+        }
+    }
+
+    @Test
+    public void reachabilityIndexMatchesReachableVertices()
+    {
+        for (DirectedGraph<Integer, DefaultEdge> graph : Arrays.asList(complexGraph, cyclicGraph, binaryTree)) {
+            for (long closureLimit : new long[]{ReachabilityIndex.DEFAULT_CLOSURE_LIMIT, 0}) {
+                ReachabilityIndex<Integer> index = GraphUtils.reachabilityIndex(graph, closureLimit);
+                Assert.assertEquals(closureLimit > 0, index.hasClosure());
+                for (Integer source : graph.vertexSet()) {
+                    Set<Integer> reachable = GraphUtils.getAllReachableVerticesFromSource(graph, source);
+                    Assert.assertEquals(reachable, new HashSet<>(index.getDescendants(source)));
+                    Assert.assertEquals(reachable.size(), index.getDescendants(source).size());
+                    for (Integer target : graph.vertexSet()) {
+                        Assert.assertEquals(reachable.contains(target), index.reaches(source, target));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void reachabilityIndexOfRandomGraphIsExact()
+    {
+        int vertexCount = 3000;
+        Random random = new Random(11);
+        CompactDigraph.Builder builder = CompactDigraph.builder(vertexCount);
+        for (int e = 0; e < 2 * vertexCount; e++) {
+            int source = random.nextInt(vertexCount);
+            // mostly forward edges, with a few back edges closing cycles
+            int target = random.nextInt(20) == 0 ? random.nextInt(vertexCount)
+                    : Math.min(vertexCount - 1, source + 1 + random.nextInt(50));
+            builder.addEdge(source, target);
+        }
+        CompactDigraph graph = builder.build();
+        ReachabilityIndex<Integer> closure = GraphUtils.reachabilityIndex(graph, Long.MAX_VALUE);
+        ReachabilityIndex<Integer> labels = GraphUtils.reachabilityIndex(graph, 0);
+        for (int source = 0; source < vertexCount; source += 37) {
+            BreadthFirstLevels<Integer> reached = GraphTraverse.parallelBfs(graph, source);
+            Assert.assertEquals(reached.getReachedVertices().size(), closure.getDescendants(source).size());
+            Assert.assertEquals(new HashSet<>(reached.getReachedVertices()),
+                    new HashSet<>(labels.getDescendants(source)));
+            for (int target = 0; target < vertexCount; target++) {
+                boolean reaches = reached.getDistance(target) != -1;
+                Assert.assertEquals(reaches, closure.reaches(source, target));
+                Assert.assertEquals(reaches, labels.reaches(source, target));
+            }
+        }
+    }
+
+    @Test
+    public void reachabilityIndexOfAbsentVertexThrowsException()
+    {
+        thrown.expect(IllegalArgumentException.class);
+        GraphUtils.reachabilityIndex(cyclicGraph).reaches(1, 0);
+    }
+
+    @Test
+    public void stronglyConnectedComponentsOfCyclicGraphAreCorrect()
+    {
+        StronglyConnectedComponents<Integer> components = GraphUtils.stronglyConnectedComponents(cyclicGraph);
+        Assert.assertTrue(components.hasCycle());
+        Assert.assertEquals(2, components.getComponentCount());
+        Assert.assertEquals(1, components.getCyclicComponents().size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 3, 4)),
+                new HashSet<>(components.getCyclicComponents().get(0)));
+        // 2 has no path back to the cycle, so it comes first in reverse topological order
+        Assert.assertEquals(Collections.singletonList(2), components.getComponents().get(0));
+    }
+
+    @Test
+    public void stronglyConnectedComponentsReportEveryCycle()
+    {
+        CompactDigraph graph = CompactDigraph.builder(7)
+                .addEdge(0, 1).addEdge(1, 0)
+                .addEdge(1, 2)
+                .addEdge(2, 3).addEdge(3, 4).addEdge(4, 2)
+                .addEdge(5, 5)
+                .build();
+        StronglyConnectedComponents<Integer> components = GraphUtils.stronglyConnectedComponents(graph);
+        Assert.assertEquals(4, components.getComponentCount());
+        Assert.assertEquals(Arrays.asList(new HashSet<>(Arrays.asList(2, 3, 4)), new HashSet<>(Arrays.asList(0, 1)),
+                Collections.singleton(5)),
+                components.getCyclicComponents().stream().map(HashSet::new).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void stronglyConnectedComponentsOfAcyclicGraphAreTrivial()
+    {
+        StronglyConnectedComponents<Integer> components = GraphUtils.stronglyConnectedComponents(complexGraph);
+        Assert.assertFalse(components.hasCycle());
+        Assert.assertEquals(complexGraph.vertexSet().size(), components.getComponentCount());
+        Assert.assertTrue(components.getCyclicComponents().isEmpty());
+    }
+
+    @Test
+    public void stronglyConnectedComponentsOfDeepChainDontOverflowStack()
+    {
+        int length = 1_000_000;
+        CompactDigraph.Builder chain = CompactDigraph.builder(length);
+        CompactDigraph.Builder ring = CompactDigraph.builder(length);
+        for (int v = 1; v < length; v++) {
+            chain.addEdge(v - 1, v);
+            ring.addEdge(v - 1, v);
+        }
+        Assert.assertFalse(GraphUtils.stronglyConnectedComponents(chain.build()).hasCycle());
+        StronglyConnectedComponents<Integer> cycle =
+                GraphUtils.stronglyConnectedComponents(ring.addEdge(length - 1, 0).build());
+        Assert.assertEquals(1, cycle.getComponentCount());
+        Assert.assertEquals(length, cycle.getCyclicComponents().get(0).size());
+    }
+
+}
@@ -0,0 +1,12 @@
+package cs.technion.ac.il.sd.app;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link ManagerApp}: the returned future completes once all tasks of the file completed,
+ * without any thread waiting for it meanwhile.
+ */
+public interface AsyncManagerApp {
+  CompletableFuture<CompletionReport> processFileAsync(File file);
+}
@@ -0,0 +1,130 @@
+package cs.technion.ac.il.sd.app;
+
+import com.google.inject.Inject;
+import cs.technion.ac.il.sd.ExternalManager;
+import cs.technion.ac.il.sd.ManagerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * AsyncManagerApp Implementation, driven entirely by the callbacks of the {@link ExternalManager}.
+ * <br> No thread waits for a configuration in progress: the calling thread dispatches the first tasks, and from then
+ * on scheduling is done by whichever thread delivers a callback. Only one thread schedules a given configuration at
+ * a time; a callback arriving meanwhile just queues its task for that thread, so completions arriving together are
+ * still handled as one batch followed by a single dispatch pass, as by {@link ManagerAppImpl}.
+ * <br> Configurations are independent, so one instance may process any number of them concurrently.
+ */
+public class AsyncManagerAppImpl implements AsyncManagerApp {
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncManagerAppImpl.class.getName());
+
+    private final ManagerFactory factory;
+    private final SchedulingPolicy policy;
+    private final SchedulerListener listener;
+
+    @Inject
+    public AsyncManagerAppImpl(ManagerFactory factory, SchedulingPolicy policy, SchedulerListener listener) {
+        this.factory = factory;
+        this.policy = policy;
+        this.listener = listener;
+    }
+
+    @Override
+    public CompletableFuture<CompletionReport> processFileAsync(File file) {
+        CompletableFuture<CompletionReport> result = new CompletableFuture<>();
+        try {
+            Configuration configuration = Configuration.fromFile(file);
+            TaskGraph taskGraph = TaskGraph.of(configuration);
+            Optional<String> rejection = taskGraph.findRejection(taskGraph.getCapacity());
+            if (!rejection.isPresent()) {
+                rejection = ExternalManagerBridge.findUnsupported(taskGraph);
+            }
+            if (rejection.isPresent()) {
+                LOGGER.warning(rejection.get());
+                factory.create(0, 0, 0).fail();
+                result.complete(CompletionReport.rejected(rejection.get()));
+            } else {
+                new Run(configuration, taskGraph, result).drain();
+            }
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * A configuration being processed. Its scheduler is only touched inside {@link #drain()}, which runs on one
+     * thread at a time.
+     */
+    private class Run {
+        private final TaskGraph taskGraph;
+        private final ExternalManager manager;
+        private final Scheduler scheduler;
+        private final CompletableFuture<CompletionReport> result;
+        private final long startTime = System.nanoTime();
+        private final long[] launchTimes;
+        private final List<CompletionReport.TaskCompletion> completions = new ArrayList<>();
+        private final MpscQueue<Integer> calledBack = new MpscQueue<>();
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+
+        Run(Configuration configuration, TaskGraph taskGraph, CompletableFuture<CompletionReport> result) {
+            long cpus = configuration.getCpus();
+            long memory = configuration.getMemory();
+            long disks = configuration.getDisks();
+            this.taskGraph = taskGraph;
+            this.result = result;
+            this.launchTimes = new long[taskGraph.size()];
+            this.manager = ExternalManagerBridge.create(factory, cpus, memory, disks);
+            this.scheduler = new Scheduler(taskGraph, policy, taskGraph.getCapacity(),
+                    listener.start(taskGraph, cpus, memory, disks));
+        }
+
+        /**
+         * Completes all queued tasks and dispatches what became ready, repeating while callbacks keep arriving.
+         * A thread finding another one already draining leaves the work to it.
+         */
+        void drain() {
+            if (pendingDrains.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                try {
+                    calledBack.drain(this::complete);
+                    scheduler.dispatch(this::launch);
+                    if (scheduler.allTasksComplete() && !result.isDone()) {
+                        scheduler.events().finished();
+                        result.complete(CompletionReport.completed(completions));
+                    }
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void launch(int id) {
+            Task task = taskGraph.getTask(id);
+            launchTimes[id] = System.nanoTime() - startTime;
+            ExternalManagerBridge.run(manager, task, () -> callback(id));
+        }
+
+        private void callback(int id) {
+            scheduler.events().calledBack(id);
+            calledBack.offer(id);
+            drain();
+        }
+
+        private void complete(int id) {
+            scheduler.complete(id);
+            completions.add(new CompletionReport.TaskCompletion(
+                    taskGraph.getTask(id).getName(), launchTimes[id], System.nanoTime() - startTime));
+        }
+    }
+}
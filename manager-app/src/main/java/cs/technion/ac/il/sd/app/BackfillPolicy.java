@@ -0,0 +1,86 @@
+package cs.technion.ac.il.sd.app;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.ToLongFunction;
+
+/**
+ * BackfillPolicy - dispatches ready tasks by priority, reserving resources for the highest priority ready task.
+ * <br> When that task, the head, doesn't fit, the policy estimates its shadow time: running tasks are expected to
+ * complete at their dispatch time plus their estimated duration, or right away if that time has passed, and the
+ * shadow time is when enough of them completed for the head to fit. A lower priority task is then dispatched only
+ * if it fits the free resources and either is expected to complete by the shadow time, or fits in what the head
+ * leaves of the resources at the shadow time, so that as far as the estimates go it never delays the head.
+ * Unlike {@link PriorityPolicy}, small tasks can't starve a large high priority task.
+ * <br> Durations are estimated in the time unit of the run's clock, see {@link SchedulingPolicy.RunningTasks}, for
+ * instance from the {@link Trace.Run#getDurations()} of a recorded run. Configurations carry no durations, so by
+ * default every task counts as one unit of time.
+ */
+public class BackfillPolicy extends PriorityPolicy {
+
+    private final ToLongFunction<Task> estimate;
+
+    public BackfillPolicy() {
+        this(task -> 1);
+    }
+
+    /**
+     * @param estimate non-negative estimated duration of every task, in the time unit of the run's clock
+     */
+    public BackfillPolicy(ToLongFunction<Task> estimate) {
+        this.estimate = estimate;
+    }
+
+    @Override
+    public int next(ReadyQueue ready, TaskGraph graph, long[] free, RunningTasks running) {
+        int head = ready.peek();
+        if (head == -1) {
+            return -1;
+        }
+        long[] reserved = graph.demand(head);
+        if (ResourceVector.fits(reserved, free)) {
+            ready.remove(head);
+            return head;
+        }
+
+        long now = running.now();
+        int[] ids = new int[running.size()];
+        long[] end = new long[ids.length];
+        int[] count = {0};
+        running.forEach(id -> {
+            end[count[0]] = Math.max(now, finish(running.dispatchedAt(id), estimate(graph, id)));
+            ids[count[0]++] = id;
+        });
+        Integer[] byEnd = new Integer[ids.length];
+        Arrays.setAll(byEnd, i -> i);
+        Arrays.sort(byEnd, Comparator.comparingLong(i -> end[i]));
+        long[] extra = free.clone();
+        long shadow = -1;
+        for (int i : byEnd) {
+            ResourceVector.add(extra, graph.demand(ids[i]));
+            if (ResourceVector.fits(reserved, extra)) {
+                shadow = end[i];
+                break;
+            }
+        }
+        if (shadow == -1) {
+            // the head waits for resources held outside this run, which its tasks can't delay
+            return ready.poll(free);
+        }
+        ResourceVector.subtract(extra, reserved);
+        long limit = shadow;
+        return ready.poll(free, id -> finish(now, estimate(graph, id)) <= limit
+                || ResourceVector.fits(graph.demand(id), extra));
+    }
+
+    private long estimate(TaskGraph graph, int id) {
+        return estimate.applyAsLong(graph.getTask(id));
+    }
+
+    /**
+     * @return time at which a task started at start and taking duration finishes, saturated at Long.MAX_VALUE
+     */
+    private static long finish(long start, long duration) {
+        return duration > Long.MAX_VALUE - start ? Long.MAX_VALUE : start + duration;
+    }
+}
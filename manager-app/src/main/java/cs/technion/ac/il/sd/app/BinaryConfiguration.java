@@ -0,0 +1,222 @@
+package cs.technion.ac.il.sd.app;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BinaryConfiguration - compact binary format of a {@link Configuration}, loaded without any text parsing.
+ * <br> All values are big endian ints, except amounts of resources which are big endian longs.
+ * The layout is:
+ * <pre>
+ * magic 'SDCB', version, cpus, memory, disks, named resource count
+ * resources:    for every named resource, in declaration order - length, UTF-8 bytes of its name, capacity
+ * task count
+ * name table:   for every task, in id order - length, UTF-8 bytes of its name
+ * task records: for every task, in id order - cpu, memory, disks, priority, first dependency, dependency count,
+ *               demand of every named resource
+ * dependencies: ids of the dependencies of all tasks, task after task
+ * </pre>
+ * Task ids follow the order of {@link Configuration#getTasks()}, which is kept when loading.
+ */
+public class BinaryConfiguration {
+
+    private static final int MAGIC = 0x53444342;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    /**
+     * Size of a task record without its named demands: cpu, memory and disks, then priority, first dependency and
+     * dependency count
+     */
+    private static final int RECORD_SIZE = 3 * 8 + 3 * 4;
+
+    private BinaryConfiguration() {
+    }
+
+    /**
+     * Converts a configuration file in the text format accepted by {@link Configuration#fromFile(File)}
+     * to the binary format.
+     */
+    public static void convert(File text, File binary) {
+        write(Configuration.fromFile(text), binary);
+    }
+
+    public static void write(Configuration configuration, File binary) {
+        List<Task> tasks = new ArrayList<>(configuration.getTasks());
+        Map<String, Integer> nameToId = new HashMap<>();
+        for (int id = 0; id < tasks.size(); id++) {
+            nameToId.put(tasks.get(id).getName(), id);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(configuration.getCpus());
+            out.writeLong(configuration.getMemory());
+            out.writeLong(configuration.getDisks());
+            List<String> resources = configuration.getResourceNames();
+            out.writeInt(resources.size());
+            for (int r = 0; r < resources.size(); r++) {
+                byte[] name = resources.get(r).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeLong(configuration.getNamedCapacity(r));
+            }
+            out.writeInt(tasks.size());
+            for (Task task : tasks) {
+                byte[] name = task.getName().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+            }
+            int firstDependency = 0;
+            for (Task task : tasks) {
+                int dependencies = configuration.getDependenciesOf(task).size();
+                out.writeLong(task.getCpu());
+                out.writeLong(task.getMemory());
+                out.writeLong(task.getDisks());
+                out.writeInt(task.getPriority());
+                out.writeInt(firstDependency);
+                out.writeInt(dependencies);
+                for (int r = 0; r < resources.size(); r++) {
+                    out.writeLong(task.getNamedDemand(r));
+                }
+                firstDependency += dependencies;
+            }
+            for (Task task : tasks) {
+                for (Task dependency : configuration.getDependenciesOf(task)) {
+                    out.writeInt(nameToId.get(dependency.getName()));
+                }
+            }
+        } catch (IOException e) {
+            throw new AssertionError();
+        }
+    }
+
+    /**
+     * Loads a configuration in the binary format, reading it through a memory mapped buffer
+     *
+     * @throws IllegalArgumentException if the file is not a binary configuration of the current version, or is
+     *                                  truncated or corrupt
+     */
+    public static Configuration load(File binary) {
+        try (FileChannel channel = FileChannel.open(binary.toPath(), StandardOpenOption.READ)) {
+            return load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new AssertionError();
+        }
+    }
+
+    private static Configuration load(ByteBuffer buffer) {
+        if (buffer.limit() < 8 || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a binary configuration");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unsupported binary configuration version " + version);
+        }
+        require(buffer, 0, HEADER_SIZE);
+        Configuration configuration = new Configuration()
+                .setCpus(buffer.getLong(8))
+                .setMemory(buffer.getLong(16))
+                .setDisks(buffer.getLong(24));
+        int position = HEADER_SIZE;
+        int resourceCount = readCount(buffer, position);
+        position += 4;
+        for (int r = 0; r < resourceCount; r++) {
+            String name = readString(buffer, position);
+            position += 4 + buffer.getInt(position);
+            require(buffer, position, 8);
+            configuration.declareResource(name, buffer.getLong(position));
+            position += 8;
+        }
+        int taskCount = readCount(buffer, position);
+        position += 4;
+
+        String[] names = new String[taskCount];
+        for (int id = 0; id < taskCount; id++) {
+            names[id] = readString(buffer, position);
+            position += 4 + buffer.getInt(position);
+        }
+
+        // every resource and name takes at least 4 bytes, so none of the sizes below overflows once checked
+        int records = position;
+        int recordSize = RECORD_SIZE + resourceCount * 8;
+        require(buffer, records, (long) taskCount * recordSize);
+        int dependencies = records + taskCount * recordSize;
+        int dependencyCount = (buffer.limit() - dependencies) / 4;
+        for (int id = 0; id < taskCount; id++) {
+            int record = records + id * recordSize;
+            int first = buffer.getInt(record + 28);
+            int count = buffer.getInt(record + 32);
+            if (first < 0 || count < 0 || (long) first + count > dependencyCount) {
+                throw new IllegalArgumentException("corrupt binary configuration: dependencies of task " + names[id]
+                        + " are out of bounds");
+            }
+            List<String> deps = new ArrayList<>(count);
+            for (int d = first; d < first + count; d++) {
+                int dependency = buffer.getInt(dependencies + d * 4);
+                if (dependency < 0 || dependency >= taskCount) {
+                    throw new IllegalArgumentException("corrupt binary configuration: task " + names[id]
+                            + " depends on unknown task id " + dependency);
+                }
+                deps.add(names[dependency]);
+            }
+            long[] named = new long[resourceCount];
+            for (int r = 0; r < resourceCount; r++) {
+                named[r] = buffer.getLong(record + RECORD_SIZE + r * 8);
+            }
+            configuration.putTask(new Task(names[id],
+                    buffer.getLong(record),
+                    buffer.getLong(record + 8),
+                    buffer.getLong(record + 16),
+                    buffer.getInt(record + 24),
+                    named), deps);
+        }
+        return configuration;
+    }
+
+    /**
+     * Reads a string stored at position as its length followed by its UTF-8 bytes
+     */
+    private static String readString(ByteBuffer buffer, int position) {
+        int length = readCount(buffer, position);
+        require(buffer, position + 4, length);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(position + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a count or a length stored at position
+     *
+     * @throws IllegalArgumentException if it is past the end of the buffer or negative
+     */
+    private static int readCount(ByteBuffer buffer, int position) {
+        require(buffer, position, 4);
+        int count = buffer.getInt(position);
+        if (count < 0) {
+            throw new IllegalArgumentException("corrupt binary configuration: negative count " + count);
+        }
+        return count;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the buffer ends before the given number of bytes from position
+     */
+    private static void require(ByteBuffer buffer, int position, long bytes) {
+        if (position + bytes > buffer.limit()) {
+            throw new IllegalArgumentException("truncated binary configuration");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package cs.technion.ac.il.sd.app;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * CompletionReport - outcome of a configuration processed by {@link AsyncManagerApp}: either the reason it was
+ * rejected, or every task with the times it was launched and completed at.
+ */
+public final class CompletionReport {
+
+    private final String rejection;
+    private final List<TaskCompletion> completions;
+
+    private CompletionReport(String rejection, List<TaskCompletion> completions) {
+        this.rejection = rejection;
+        this.completions = Collections.unmodifiableList(completions);
+    }
+
+    static CompletionReport rejected(String rejection) {
+        return new CompletionReport(rejection, Collections.emptyList());
+    }
+
+    static CompletionReport completed(List<TaskCompletion> completions) {
+        return new CompletionReport(null, completions);
+    }
+
+    /**
+     * @return true iff the configuration was failed instead of run
+     */
+    public boolean isRejected() {
+        return rejection != null;
+    }
+
+    /**
+     * @return why the configuration was failed, or Optional.empty if it was run
+     */
+    public Optional<String> getRejection() {
+        return Optional.ofNullable(rejection);
+    }
+
+    /**
+     * @return the tasks in the order they completed in, empty if the configuration was rejected
+     */
+    public List<TaskCompletion> getCompletions() {
+        return completions;
+    }
+
+    @Override
+    public String toString() {
+        return isRejected() ? "rejected: " + rejection : completions.size() + " tasks completed";
+    }
+
+    /**
+     * A completed task, with its times in nanoseconds since the configuration started running
+     */
+    public static final class TaskCompletion {
+        private final String task;
+        private final long launchTime;
+        private final long completionTime;
+
+        TaskCompletion(String task, long launchTime, long completionTime) {
+            this.task = task;
+            this.launchTime = launchTime;
+            this.completionTime = completionTime;
+        }
+
+        public String getTask() {
+            return task;
+        }
+
+        public long getLaunchTime() {
+            return launchTime;
+        }
+
+        public long getCompletionTime() {
+            return completionTime;
+        }
+
+        @Override
+        public String toString() {
+            return task + " [" + launchTime + ", " + completionTime + "]";
+        }
+    }
+}
@@ -1,12 +1,9 @@
 package cs.technion.ac.il.sd.app;
 
-import com.google.common.collect.Lists;
-
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -15,56 +12,89 @@ import java.util.stream.Collectors;
  */
 public class Configuration {
 
-    private int cpus;
-    private int memory;
-    private int disks;
+    private long cpus;
+    private long memory;
+    private long disks;
+    private final List<String> resourceNames = new ArrayList<>();
+    private long[] namedCapacity = new long[0];
     private HashMap<String, Task> nameToTask;
     private HashMap<String, List<String>> nameToDepNames;
 
-    private Configuration() {
-        this.nameToTask = new HashMap<>();
+    Configuration() {
+        this.nameToTask = new LinkedHashMap<>();
         this.nameToDepNames = new HashMap<>();
 
     }
 
+    /**
+     * Parses a configuration file.
+     * Tasks are kept in the order in which they are first mentioned in the file.
+     *
+     * @see ConfigurationParser
+     */
     public static Configuration fromFile(File file) {
+        try {
+            return new ConfigurationParser().parse(file);
+        } catch (IOException e) {
+            throw new AssertionError();
+        }
+    }
 
-        Configuration c = new Configuration();
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String[] resources = br.readLine().split(",\\s");
-            c.setCpus(Integer.parseInt(resources[0]))
-                    .setMemory(Integer.parseInt(resources[1]))
-                    .setDisks(Integer.parseInt(resources[2]));
-
-            br.lines().forEach(l -> {
-                String trm = l.trim();
-                if (!trm.equals(""))
-                    c.parseLine(trm);
-            });
+    /**
+     * Parses a configuration file in parallel on the common {@link ForkJoinPool}.
+     * The result is the same as {@link #fromFile(File)}, this is meant for very large files.
+     *
+     * @see MappedConfigurationLoader
+     */
+    public static Configuration fromFileParallel(File file) {
+        return fromFileParallel(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses a configuration file in parallel on the given {@link ForkJoinPool}.
+     * The result is the same as {@link #fromFile(File)}, this is meant for very large files.
+     *
+     * @see MappedConfigurationLoader
+     */
+    public static Configuration fromFileParallel(File file, ForkJoinPool pool) {
+        try {
+            return new MappedConfigurationLoader(pool).load(file);
         } catch (IOException e) {
             throw new AssertionError();
         }
-        return c;
     }
 
-    private void parseLine(String line) {
-        String[] args = line.replaceAll(",|\\(|\\)|:", " ").split("\\s+");
-        String task = args[0];
-        List<String> deps = args.length >= 5 ?
-                Lists.newArrayList(Arrays.copyOfRange(args, 1, args.length - 4)) : Lists.newArrayList();
-        List<Integer> resources = Lists.newArrayList(Arrays.copyOfRange(args, args.length - 4, args.length))
-                .stream()
-                .map(Integer::parseInt)
-                .collect(Collectors.toList());
-        nameToTask.put(task, new Task(task, resources.get(0), resources.get(1), resources.get(2), resources.get(3)));
+    /**
+     * Defines a task, overriding a previous definition of the same name.
+     * Dependencies that were not defined yet are added as tasks with no resources and no dependencies.
+     */
+    void addTask(String task, long cpu, long memory, long disks, int priority, List<String> deps) {
+        addTask(task, cpu, memory, disks, priority, new long[0], deps);
+    }
+
+    /**
+     * Defines a task demanding named resources as well, see {@link #addTask(String, long, long, long, int, List)}
+     *
+     * @param named demands of the named resources, in the order they were declared in
+     */
+    void addTask(String task, long cpu, long memory, long disks, int priority, long[] named, List<String> deps) {
+        nameToTask.put(task, new Task(task, cpu, memory, disks, priority, named));
 
         for (String d : deps) {
-            nameToTask.putIfAbsent(d, new Task(d, 0, 0, 0, 0));
-            nameToDepNames.putIfAbsent(d, new ArrayList<>());
+            nameToTask.computeIfAbsent(d, name -> new Task(name, 0, 0, 0, 0));
+            nameToDepNames.computeIfAbsent(d, name -> new ArrayList<>());
         }
         nameToDepNames.put(task, deps);
     }
 
+    /**
+     * Puts a task as is, without adding its dependencies as tasks - they are expected to be put as well.
+     */
+    void putTask(Task task, List<String> deps) {
+        nameToTask.put(task.getName(), task);
+        nameToDepNames.put(task.getName(), deps);
+    }
+
     public Optional<Task> getTask(String name) {
         return Optional.ofNullable(nameToTask.get(name));
     }
@@ -72,7 +102,7 @@ public class Configuration {
     public Set<Task> getTasks() {
         return nameToTask.values()
                 .stream()
-                .collect(Collectors.toSet());
+                .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
     public Set<Task> getDependenciesOf(String taskName) {
@@ -86,30 +116,60 @@ public class Configuration {
         return getDependenciesOf(task.getName());
     }
 
-    private Configuration setCpus(int cpus) {
+    /**
+     * Declares a named resource, following the resources declared before it
+     *
+     * @throws IllegalArgumentException if a resource of that name was already declared
+     */
+    Configuration declareResource(String name, long capacity) {
+        if (resourceNames.contains(name) || name.equals("cpus") || name.equals("memory") || name.equals("disks")) {
+            throw new IllegalArgumentException("resource declared twice: " + name);
+        }
+        resourceNames.add(name);
+        namedCapacity = Arrays.copyOf(namedCapacity, resourceNames.size());
+        namedCapacity[namedCapacity.length - 1] = capacity;
+        return this;
+    }
+
+    Configuration setCpus(long cpus) {
         this.cpus = cpus;
         return this;
     }
 
-    private Configuration setMemory(int memory) {
+    Configuration setMemory(long memory) {
         this.memory = memory;
         return this;
     }
 
-    private Configuration setDisks(int disks) {
+    Configuration setDisks(long disks) {
         this.disks = disks;
         return this;
     }
 
-    public int getCpus() {
+    public long getCpus() {
         return cpus;
     }
 
-    public int getMemory() {
+    public long getMemory() {
         return memory;
     }
 
-    public int getDisks() {
+    public long getDisks() {
         return disks;
     }
+
+    /**
+     * @return names of the resources declared besides cpus, memory and disks, in declaration order
+     */
+    public List<String> getResourceNames() {
+        return Collections.unmodifiableList(resourceNames);
+    }
+
+    /**
+     * @param resource index of a named resource, in declaration order
+     * @return the amount of the resource available
+     */
+    public long getNamedCapacity(int resource) {
+        return namedCapacity[resource];
+    }
 }
@@ -0,0 +1,440 @@
+package cs.technion.ac.il.sd.app;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ConfigurationParser - streaming parser of configuration files.
+ * <br> The file is read in blocks and scanned byte by byte: separators are found without regular expressions,
+ * resources are parsed as primitive longs and every task name is decoded into a String only once.
+ * <br> The grammar is:
+ * <pre>
+ * file     := header line*
+ * header   := cpus sep memory sep disks (sep resource=capacity)*
+ * line     := blank | name (sep dependency)* sep cpu sep memory sep disks sep priority (sep resource=demand)*
+ * </pre>
+ * where sep is any run of ',', '(', ')', ':' and whitespace, so that {@code name(dep, dep) : 1, 2, 3, 0} and
+ * {@code name dep dep 1 2 3 0} are the same task. Amounts are longs and the priority an int, each with an optional
+ * sign. The header declares the named resources, as in {@code 10, 11, 12, gpu=4, license=2}, and a task demands
+ * only those it mentions, as in {@code train(prepare) : 1, 2, 3, 0, gpu=2}. A task defined again replaces the
+ * earlier definition, and a dependency that is never defined is a task demanding nothing.
+ * <br> A parser instance parses a single file.
+ */
+class ConfigurationParser {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long[] NO_NAMED_DEMANDS = new long[0];
+
+    private final NameTable names = new NameTable();
+    private int[] tokenStarts = new int[16];
+    private int[] tokenEnds = new int[16];
+    private int tokenCount;
+    private Configuration configuration;
+    private List<String> resourceNames;
+    private TaskSink tasks;
+
+    Configuration parse(File file) throws IOException {
+        configuration = new Configuration();
+        try (InputStream in = new FileInputStream(file)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+            int start = 0;
+            int end = 0;
+            int read;
+            while ((read = in.read(bytes, end, bytes.length - end)) != -1) {
+                int scanned = end;
+                end += read;
+                for (int i = scanned; i < end; i++) {
+                    if (bytes[i] == '\n') {
+                        parseLine(buffer, start, i);
+                        start = i + 1;
+                    }
+                }
+                if (start > 0) {
+                    System.arraycopy(bytes, start, bytes, 0, end - start);
+                    end -= start;
+                    start = 0;
+                } else if (end == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                    buffer = ByteBuffer.wrap(bytes);
+                }
+            }
+            parseLine(buffer, start, end);
+        }
+        return configuration;
+    }
+
+    /**
+     * Parses every line in bytes [from, to) of the buffer as a task definition, skipping blank lines.
+     * The last line need not end with a line break.
+     *
+     * @param resourceNames named resources declared by the header of the file
+     * @param tasks receives the task definitions, in order
+     */
+    void parseTasks(ByteBuffer buffer, int from, int to, List<String> resourceNames, TaskSink tasks) {
+        this.resourceNames = resourceNames;
+        this.tasks = tasks;
+        int start = from;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                parseTask(buffer, start, i);
+                start = i + 1;
+            }
+        }
+        parseTask(buffer, start, to);
+    }
+
+    /**
+     * Parses the line in bytes [from, to) of the buffer: the first line is the header, every other non blank line
+     * is a task definition.
+     */
+    private void parseLine(ByteBuffer buffer, int from, int to) {
+        if (tasks == null) {
+            parseHeader(buffer, from, to, configuration);
+            resourceNames = configuration.getResourceNames();
+            tasks = configuration::addTask;
+        } else {
+            parseTask(buffer, from, to);
+        }
+    }
+
+    /**
+     * Parses the header line {@code cpus, memory, disks, name=capacity...} in bytes [from, to) of the buffer
+     * into the configuration
+     */
+    void parseHeader(ByteBuffer buffer, int from, int to, Configuration configuration) {
+        from = skipBlanks(buffer, from, to);
+        to = trimBlanks(buffer, from, to);
+        tokenize(buffer, from, to);
+        if (tokenCount < 3) {
+            throw new IllegalArgumentException("malformed header: " + decode(buffer, from, to));
+        }
+        configuration.setCpus(parseLong(buffer, 0))
+                .setMemory(parseLong(buffer, 1))
+                .setDisks(parseLong(buffer, 2));
+        for (int t = 3; t < tokenCount; t++) {
+            int equals = indexOfEquals(buffer, t);
+            if (equals == -1) {
+                throw new IllegalArgumentException("malformed header: " + decode(buffer, from, to));
+            }
+            configuration.declareResource(decode(buffer, tokenStarts[t], equals),
+                    parseLong(buffer, equals + 1, tokenEnds[t]));
+        }
+    }
+
+    private void parseTask(ByteBuffer buffer, int from, int to) {
+        from = skipBlanks(buffer, from, to);
+        to = trimBlanks(buffer, from, to);
+        if (from == to) {
+            return;
+        }
+        tokenize(buffer, from, to);
+        int namedTokens = 0;
+        while (namedTokens < tokenCount && indexOfEquals(buffer, tokenCount - 1 - namedTokens) != -1) {
+            namedTokens++;
+        }
+        if (tokenCount - namedTokens < 4) {
+            throw new IllegalArgumentException("malformed task: " + decode(buffer, from, to));
+        }
+        int resources = tokenCount - namedTokens - 4;
+        String task = names.intern(buffer, tokenStarts[0], tokenEnds[0]);
+        List<String> deps = new ArrayList<>(Math.max(0, resources - 1));
+        for (int t = 1; t < resources; t++) {
+            deps.add(names.intern(buffer, tokenStarts[t], tokenEnds[t]));
+        }
+        tasks.addTask(task,
+                parseLong(buffer, resources),
+                parseLong(buffer, resources + 1),
+                parseLong(buffer, resources + 2),
+                parseInt(buffer, resources + 3),
+                parseNamedDemands(buffer, tokenCount - namedTokens, task),
+                deps);
+    }
+
+    /**
+     * Parses the {@code name=demand} tokens from the given one to the last
+     *
+     * @return demands of the named resources in declaration order, empty if there are no such tokens
+     */
+    private long[] parseNamedDemands(ByteBuffer buffer, int first, String task) {
+        if (first == tokenCount) {
+            return NO_NAMED_DEMANDS;
+        }
+        long[] named = new long[resourceNames.size()];
+        for (int t = first; t < tokenCount; t++) {
+            int equals = indexOfEquals(buffer, t);
+            String name = decode(buffer, tokenStarts[t], equals);
+            int resource = resourceNames.indexOf(name);
+            if (resource == -1) {
+                throw new IllegalArgumentException("task " + task + " demands undeclared resource " + name);
+            }
+            named[resource] = parseLong(buffer, equals + 1, tokenEnds[t]);
+        }
+        return named;
+    }
+
+    /**
+     * @return position of the first '=' in the token, or -1 if there is none
+     */
+    private int indexOfEquals(ByteBuffer buffer, int token) {
+        for (int i = tokenStarts[token]; i < tokenEnds[token]; i++) {
+            if (buffer.get(i) == '=') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipBlanks(ByteBuffer buffer, int from, int to) {
+        while (from < to && isBlank(buffer.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimBlanks(ByteBuffer buffer, int from, int to) {
+        while (to > from && isBlank(buffer.get(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * Splits bytes [from, to) into tokens, the same way as replacing every separator by a space and splitting on
+     * whitespace would: a line starting with a separator begins with an empty token.
+     */
+    private void tokenize(ByteBuffer buffer, int from, int to) {
+        tokenCount = 0;
+        int i = from;
+        if (i < to && isSeparator(buffer.get(i))) {
+            addToken(i, i);
+        }
+        while (i < to) {
+            while (i < to && isSeparator(buffer.get(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < to && !isSeparator(buffer.get(i))) {
+                i++;
+            }
+            if (start < i) {
+                addToken(start, i);
+            }
+        }
+    }
+
+    private void addToken(int start, int end) {
+        if (tokenCount == tokenStarts.length) {
+            tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+            tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+        }
+        tokenStarts[tokenCount] = start;
+        tokenEnds[tokenCount] = end;
+        tokenCount++;
+    }
+
+    /**
+     * Parses the token as {@link Integer#parseInt(String)} would, without creating a String.
+     */
+    private int parseInt(ByteBuffer buffer, int token) {
+        int from = tokenStarts[token];
+        int to = tokenEnds[token];
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == to) {
+            throw numberFormat(buffer, from, to);
+        }
+        // accumulating negatively, as the JDK does, covers Integer.MIN_VALUE
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multiplicationLimit = limit / 10;
+        int result = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplicationLimit) {
+                throw numberFormat(buffer, from, to);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw numberFormat(buffer, from, to);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses the token as {@link Long#parseLong(String)} would, without creating a String.
+     */
+    private long parseLong(ByteBuffer buffer, int token) {
+        return parseLong(buffer, tokenStarts[token], tokenEnds[token]);
+    }
+
+    /**
+     * Parses bytes [from, to) as {@link Long#parseLong(String)} would, without creating a String.
+     */
+    private static long parseLong(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == to) {
+            throw numberFormat(buffer, from, to);
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplicationLimit = limit / 10;
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplicationLimit) {
+                throw numberFormat(buffer, from, to);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw numberFormat(buffer, from, to);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static NumberFormatException numberFormat(ByteBuffer buffer, int from, int to) {
+        return new NumberFormatException("For input string: \"" + decode(buffer, from, to) + "\"");
+    }
+
+    /**
+     * Whitespace as removed by {@link String#trim()}
+     */
+    private static boolean isBlank(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * Separators of the grammar: ',', '(', ')', ':' and whitespace as matched by {@code \s}
+     */
+    private static boolean isSeparator(byte b) {
+        switch (b) {
+            case ',':
+            case '(':
+            case ')':
+            case ':':
+            case ' ':
+            case '\t':
+            case '\n':
+            case 0x0B:
+            case '\f':
+            case '\r':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = from; i < to; i++) {
+            bytes[i - from] = buffer.get(i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Receives task definitions, in the order in which they appear in a file
+     */
+    interface TaskSink {
+        void addTask(String task, long cpu, long memory, long disks, int priority, long[] named, List<String> deps);
+    }
+
+    /**
+     * Open addressing hash table from the UTF-8 bytes of a name to its String, so that repeated occurrences of a
+     * name are neither copied nor decoded again, and all of them share the same String instance.
+     */
+    static class NameTable {
+        private byte[][] keys = new byte[64][];
+        private String[] values = new String[64];
+        private int[] hashes = new int[64];
+        private int size;
+
+        String intern(ByteBuffer buffer, int from, int to) {
+            int hash = hash(buffer, from, to);
+            int mask = keys.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                byte[] key = keys[slot];
+                if (key == null) {
+                    return insert(slot, hash, buffer, from, to);
+                }
+                if (hashes[slot] == hash && matches(key, buffer, from, to)) {
+                    return values[slot];
+                }
+            }
+        }
+
+        private String insert(int slot, int hash, ByteBuffer buffer, int from, int to) {
+            byte[] key = new byte[to - from];
+            for (int i = from; i < to; i++) {
+                key[i - from] = buffer.get(i);
+            }
+            String value = new String(key, StandardCharsets.UTF_8);
+            keys[slot] = key;
+            values[slot] = value;
+            hashes[slot] = hash;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return value;
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            int[] oldHashes = hashes;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            hashes = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = oldHashes[i] & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    hashes[slot] = oldHashes[i];
+                }
+            }
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buffer, int from, int to) {
+            if (key.length != to - from) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int hash(ByteBuffer buffer, int from, int to) {
+            int h = 0;
+            for (int i = from; i < to; i++) {
+                h = 31 * h + buffer.get(i);
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
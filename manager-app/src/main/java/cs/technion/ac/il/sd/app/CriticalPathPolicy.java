@@ -0,0 +1,22 @@
+package cs.technion.ac.il.sd.app;
+
+import cs.technion.ac.il.sd.library.CriticalPath;
+
+import java.util.Comparator;
+
+/**
+ * CriticalPathPolicy - dispatches first the ready tasks with the earliest latest start, that is, those heading
+ * the longest chains of tasks that depend on them, since those chains bound the time to complete the whole
+ * configuration. Configurations carry no durations, so every task counts as one unit of time.
+ * Ties are broken by priority.
+ */
+public class CriticalPathPolicy implements SchedulingPolicy {
+
+    @Override
+    public int[] dispatchOrder(TaskGraph graph, long[] capacity) {
+        CriticalPath<Integer> criticalPath = graph.criticalPath(task -> 1)
+                .orElseThrow(() -> new IllegalArgumentException("circular dependency"));
+        Comparator<Integer> byLatestStart = Comparator.comparingLong(criticalPath::getLatestStart);
+        return SchedulingPolicy.sortedIds(graph, byLatestStart.thenComparing(SchedulingPolicy.byPriority(graph)));
+    }
+}
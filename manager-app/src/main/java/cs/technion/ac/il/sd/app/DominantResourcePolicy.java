@@ -0,0 +1,28 @@
+package cs.technion.ac.il.sd.app;
+
+import java.util.Comparator;
+
+/**
+ * DominantResourcePolicy - packs the cluster by dispatching first the ready tasks with the largest dominant share,
+ * that is, the largest fraction of the total amount of any single resource they demand, named resources included.
+ * Smaller tasks then fill the remaining gaps. Ties are broken by priority.
+ */
+public class DominantResourcePolicy implements SchedulingPolicy {
+
+    @Override
+    public int[] dispatchOrder(TaskGraph graph, long[] capacity) {
+        double[] share = new double[graph.size()];
+        for (int id = 0; id < graph.size(); id++) {
+            long[] demand = graph.demand(id);
+            for (int r = 0; r < capacity.length; r++) {
+                share[id] = Math.max(share[id], share(demand[r], capacity[r]));
+            }
+        }
+        Comparator<Integer> largestShareFirst = Comparator.comparingDouble(id -> -share[id]);
+        return SchedulingPolicy.sortedIds(graph, largestShareFirst.thenComparing(SchedulingPolicy.byPriority(graph)));
+    }
+
+    private static double share(long demand, long total) {
+        return total == 0 ? 0 : (double) demand / total;
+    }
+}
@@ -0,0 +1,50 @@
+package cs.technion.ac.il.sd.app;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * ExecutionMode - thread the scheduling loop of {@link ManagerAppImpl} runs on. In both modes completions are
+ * queued to the loop on the threads delivering the callbacks, which return at once.
+ */
+public enum ExecutionMode {
+    /**
+     * The loop runs on the thread calling {@link ManagerApp#processFile}
+     */
+    PLATFORM,
+    /**
+     * The loop runs on a virtual thread, which the calling thread waits for. Requires Java 21 or later.
+     */
+    VIRTUAL;
+
+    private static final Optional<ThreadFactory> VIRTUAL_THREADS = virtualThreadFactory();
+
+    /**
+     * @return true iff this mode is available on the running JVM
+     */
+    public boolean isSupported() {
+        return this == PLATFORM || VIRTUAL_THREADS.isPresent();
+    }
+
+    /**
+     * @return factory of virtual threads
+     * @throws UnsupportedOperationException if the running JVM has no virtual threads
+     */
+    static ThreadFactory virtualThreads() {
+        return VIRTUAL_THREADS.orElseThrow(() ->
+                new UnsupportedOperationException("virtual threads require Java 21 or later"));
+    }
+
+    /**
+     * {@code Thread.ofVirtual().factory()}, looked up reflectively since the code is compiled for Java 8
+     */
+    private static Optional<ThreadFactory> virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package cs.technion.ac.il.sd.app;
+
+import cs.technion.ac.il.sd.ExternalManager;
+import cs.technion.ac.il.sd.ManagerFactory;
+
+import java.util.Optional;
+
+/**
+ * ExternalManagerBridge - passes the 64-bit amounts of resources the manager accounts in to the int based
+ * {@link ManagerFactory} and {@link ExternalManager}.
+ * <br> The capacities the external manager is created with are saturated at {@link Integer#MAX_VALUE}: the
+ * scheduler keeps the actual capacities and never runs more than they allow. The demands of a task must fit in an
+ * int to be passed on, so a configuration with a task demanding more is rejected up front by
+ * {@link #findUnsupported(TaskGraph)} rather than failing once it runs.
+ */
+final class ExternalManagerBridge {
+
+    private ExternalManagerBridge() {
+    }
+
+    static ExternalManager create(ManagerFactory factory, long cpus, long memory, long disks) {
+        return factory.create(saturate(cpus), saturate(memory), saturate(disks));
+    }
+
+    /**
+     * Runs the task on the external manager
+     *
+     * @throws ArithmeticException if a demand of the task doesn't fit in an int
+     */
+    static void run(ExternalManager manager, Task task, Runnable callback) {
+        manager.run(task.getName(), Math.toIntExact(task.getCpu()), Math.toIntExact(task.getMemory()),
+                Math.toIntExact(task.getDisks()), callback);
+    }
+
+    /**
+     * @return why some task can't be passed to the external manager, or Optional.empty if all of them can
+     */
+    static Optional<String> findUnsupported(TaskGraph graph) {
+        for (int id = 0; id < graph.size(); id++) {
+            Task task = graph.getTask(id);
+            if (task.getCpu() > Integer.MAX_VALUE || task.getMemory() > Integer.MAX_VALUE
+                    || task.getDisks() > Integer.MAX_VALUE) {
+                return Optional.of("task " + task.getName() + " needs more resources than the external manager accepts");
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static int saturate(long amount) {
+        return (int) Math.min(amount, Integer.MAX_VALUE);
+    }
+}
@@ -1,47 +1,54 @@
 package cs.technion.ac.il.sd.app;
 
-import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import cs.technion.ac.il.sd.ExternalManager;
 import cs.technion.ac.il.sd.ManagerFactory;
-import cs.technion.ac.il.sd.library.GraphUtils;
-import org.jgrapht.DirectedGraph;
-import org.jgrapht.graph.DefaultDirectedGraph;
-import org.jgrapht.graph.DefaultEdge;
 
 import java.io.File;
 import java.util.*;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
 
 /**
  * ManagerApp Implementation
+ * <br> Callbacks hand completed tasks to the scheduling loop through an {@link MpscQueue}, see {@link ExecutionMode}
+ * for the threads each runs on.
  */
 
 public class ManagerAppImpl implements ManagerApp {
 
+    private static final Logger LOGGER = Logger.getLogger(ManagerAppImpl.class.getName());
+
     private final ManagerFactory factory;
+    private final SchedulingPolicy policy;
+    private final SchedulerListener listener;
+    private final ExecutionMode mode;
 
     private ExternalManager manager;
-    private int cpus;
-    private int memory;
-    private int disks;
-    private DirectedGraph<Task, DefaultEdge> dependencyGraph;
+    private long cpus;
+    private long memory;
+    private long disks;
+    private TaskGraph taskGraph;
+    private Scheduler scheduler;
+    private final MpscQueue<Integer> calledBack = new MpscQueue<>();
 
-    private Queue<Task> readyToRun;
-    private LinkedBlockingQueue<Task> calledBack;
-    private Set<Task> running;
-    private Set<Task> complete;
-    private int totalTasks;
+    public ManagerAppImpl(ManagerFactory factory, SchedulingPolicy policy, SchedulerListener listener) {
+        this(factory, policy, listener, ExecutionMode.PLATFORM);
+    }
 
+    /**
+     * @throws UnsupportedOperationException if the mode is not supported by the running JVM
+     */
     @Inject
-    public ManagerAppImpl(ManagerFactory factory) {
+    public ManagerAppImpl(ManagerFactory factory, SchedulingPolicy policy, SchedulerListener listener,
+                          ExecutionMode mode) {
+        if (!mode.isSupported()) {
+            throw new UnsupportedOperationException(mode + " execution mode requires Java 21 or later");
+        }
         this.factory = factory;
-        this.readyToRun = new PriorityQueue<>();
-        this.running = new HashSet<>();
-        this.complete = new HashSet<>();
-        this.calledBack = new LinkedBlockingQueue<>();
-        this.dependencyGraph = new DefaultDirectedGraph<>(DefaultEdge.class);
+        this.policy = policy;
+        this.listener = listener;
+        this.mode = mode;
     }
 
     @Override
@@ -49,129 +56,103 @@ public class ManagerAppImpl implements ManagerApp {
 
         Configuration configuration = Configuration.fromFile(file);
         loadResources(configuration);
-        buildGraph(configuration);
+        taskGraph = TaskGraph.of(configuration);
 
-        if (canProcess(configuration)) {
-            process();
-        } else {
+        if (!canProcess()) {
             fail();
+        } else if (mode == ExecutionMode.VIRTUAL) {
+            processOnVirtualThread();
+        } else {
+            process();
         }
     }
 
-    private boolean canProcess(Configuration configuration) {
-        return isEnoughResources(configuration) && !hasCircularDependency(dependencyGraph);
-    }
-
-    private void fail() {
-        factory.create(0, 0, 0).fail();
-    }
-
-    private void process() {
-        manager = factory.create(cpus, memory, disks);
-        readyToRun.addAll(GraphUtils.getSourcesVertices(dependencyGraph));
-
-        while (!allTasksLaunched()) {
-            runAvailable();
+    /**
+     * Runs the scheduling loop on a virtual thread, waiting for it and rethrowing what it threw
+     */
+    private void processOnVirtualThread() {
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread loop = ExecutionMode.virtualThreads().newThread(() -> {
             try {
-                onTaskDone(calledBack.take());
-            } catch (InterruptedException e) {
-                throw new AssertionError("interrupted while waiting for callback");
+                process();
+            } catch (Throwable t) {
+                thrown.set(t);
             }
+        });
+        loop.start();
+        try {
+            loop.join();
+        } catch (InterruptedException e) {
+            throw new AssertionError("interrupted while waiting for scheduling loop");
+        }
+        if (thrown.get() instanceof RuntimeException) {
+            throw (RuntimeException) thrown.get();
+        } else if (thrown.get() != null) {
+            throw new AssertionError(thrown.get());
         }
     }
 
-    private boolean allTasksLaunched() {
-        return Sets.union(complete, running).size() == totalTasks;
-    }
-
-    private boolean isEnoughResources(Configuration configuration) {
-        return configuration.getTasks().stream()
-                .allMatch(this::isAbleToRun);
-    }
-
-    private boolean hasCircularDependency(DirectedGraph<Task, DefaultEdge> dependencyGraph) {
-        return GraphUtils.hasCycle(dependencyGraph);
+    /**
+     * Checks that the configuration can be run, logging the reason when it can't
+     */
+    private boolean canProcess() {
+        Optional<String> rejection = taskGraph.findRejection(taskGraph.getCapacity());
+        if (!rejection.isPresent()) {
+            rejection = ExternalManagerBridge.findUnsupported(taskGraph);
+        }
+        rejection.ifPresent(LOGGER::warning);
+        return !rejection.isPresent();
     }
 
-    private void runAvailable() {
-
-        Set<Task> newRunning = readyToRun.stream()
-                .map(this::runIfPossible)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toSet());
-
-        newRunning.forEach( t-> {
-            readyToRun.remove(t);
-            running.add(t);
-        });
+    private void fail() {
+        factory.create(0, 0, 0).fail();
     }
 
-    private Optional<Task> runIfPossible(Task task) {
-        if (isAbleToRun(task)) {
-            run(task);
-            return Optional.of(task);
+    private void process() {
+        manager = ExternalManagerBridge.create(factory, cpus, memory, disks);
+        scheduler = new Scheduler(taskGraph, policy, taskGraph.getCapacity(),
+                listener.start(taskGraph, cpus, memory, disks));
+
+        List<Integer> done = new ArrayList<>();
+        while (!scheduler.allTasksLaunched()) {
+            scheduler.dispatch(this::run);
+            awaitCallbacks(done);
+            done.forEach(scheduler::complete);
+            done.clear();
         }
-        return Optional.empty();
+        scheduler.events().finished();
     }
 
-    private void run(Task task) {
-        useResources(task);
-        manager.run(task.getName(), task.getCpu(), task.getMemory(), task.getDisks(), () -> callback(task));
-    }
-
-    private void callback(Task task) {
+    /**
+     * Waits for at least one task to finish, then collects all other tasks that finished meanwhile,
+     * so that completions arriving together are handled as one batch followed by a single dispatch pass.
+     */
+    private void awaitCallbacks(List<Integer> done) {
         try {
-            calledBack.put(task);
+            calledBack.awaitDrain(done::add);
         } catch (InterruptedException e) {
-            throw new AssertionError("interrupted while posting callback");
+            throw new AssertionError("interrupted while waiting for callback");
         }
     }
 
-    private void onTaskDone(Task task) {
-        restoreResources(task);
-        running.remove(task);
-        complete.add(task);
-        dependencyGraph.removeVertex(task);
-        Set<Task> newReadyToRun = GraphUtils.getSourcesVertices(dependencyGraph)
-                .stream()
-                .filter(this::taskNotProcessed)
-                .collect(Collectors.toSet());
-        readyToRun.addAll(newReadyToRun);
-    }
-
-    private boolean taskNotProcessed(Task t) {
-        return !readyToRun.contains(t) && !running.contains(t) && !complete.contains(t);
-    }
-
-    private void useResources(Task task) {
-        cpus -= task.getCpu();
-        memory -= task.getMemory();
-        disks -= task.getDisks();
-    }
-
-    private void restoreResources(Task task) {
-        cpus += task.getCpu();
-        memory += task.getMemory();
-        disks += task.getDisks();
+    private void run(int id) {
+        Task task = taskGraph.getTask(id);
+        SchedulerListener.Run events = scheduler.events();
+        ExternalManagerBridge.run(manager, task, () -> callback(events, id));
     }
 
-    private boolean isAbleToRun(Task t) {
-        return t.getCpu() <= cpus && t.getDisks() <= disks && t.getMemory() <= memory;
+    /**
+     * Queues a completed task for the scheduling loop, on the thread delivering the callback in every mode -
+     * it only records the event and offers to a lock-free queue, so it returns at once
+     */
+    private void callback(SchedulerListener.Run events, int id) {
+        events.calledBack(id);
+        calledBack.offer(id);
     }
 
     private void loadResources(Configuration configuration) {
-        totalTasks = configuration.getTasks().size();
         cpus = configuration.getCpus();
         memory = configuration.getMemory();
         disks = configuration.getDisks();
     }
-
-    private DirectedGraph<Task, DefaultEdge> buildGraph(Configuration configuration) {
-        configuration.getTasks().forEach(dependencyGraph::addVertex);
-        configuration.getTasks()
-                .forEach(task -> configuration.getDependenciesOf(task)
-                        .forEach(d -> dependencyGraph.addEdge(d, task)));
-        return dependencyGraph;
-    }
 }
@@ -6,5 +6,9 @@ public class ManagerModule extends AbstractModule {
   @Override
   protected void configure() {
     bind(ManagerApp.class).to(ManagerAppImpl.class);
+    bind(AsyncManagerApp.class).to(AsyncManagerAppImpl.class);
+    bind(SchedulingPolicy.class).to(PriorityPolicy.class);
+    bind(SchedulerListener.class).toInstance(SchedulerListener.NONE);
+    bind(ExecutionMode.class).toInstance(ExecutionMode.PLATFORM);
   }
 }
@@ -0,0 +1,194 @@
+package cs.technion.ac.il.sd.app;
+
+import cs.technion.ac.il.sd.ExternalManager;
+import cs.technion.ac.il.sd.ManagerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * ManagerService - long-lived service processing many configuration files concurrently.
+ * <br> Every submitted file runs in its own scheduling context, with its own {@link ExternalManager}, task graph
+ * and {@link Scheduler}, so submissions are isolated from each other except for a global {@link ResourcePool} of
+ * cpus, memory, disks and named resources that all their running tasks share. Named resources are shared by name:
+ * the first configuration declaring one sets its capacity in the pool. A task is dispatched only when it fits both
+ * the free resources of its configuration and the free resources of the pool.
+ * <br> Contexts are driven by a fixed number of event loop threads rather than a thread per submission: each
+ * context is bound to one loop, which runs all of its scheduling, so a context needs no locking. Callbacks only
+ * queue the completed task and wake the loop, which handles all queued completions in one batch followed by a
+ * single dispatch pass, as {@link ManagerAppImpl} does.
+ */
+public class ManagerService implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(ManagerService.class.getName());
+
+    private final ManagerFactory factory;
+    private final SchedulingPolicy policy;
+    private final SchedulerListener listener;
+    private final ResourcePool pool;
+    private final List<ExecutorService> loops = new ArrayList<>();
+    private final AtomicInteger nextLoop = new AtomicInteger();
+
+    /**
+     * @param cpus cpus of the global pool
+     * @param memory memory of the global pool
+     * @param disks disks of the global pool
+     * @param eventLoops number of event loop threads
+     * @throws IllegalArgumentException if eventLoops is not positive
+     */
+    public ManagerService(ManagerFactory factory, SchedulingPolicy policy, SchedulerListener listener,
+                          long cpus, long memory, long disks, int eventLoops) {
+        if (eventLoops < 1) {
+            throw new IllegalArgumentException("event loops must be positive: " + eventLoops);
+        }
+        this.factory = factory;
+        this.policy = policy;
+        this.listener = listener;
+        this.pool = new ResourcePool(cpus, memory, disks);
+        for (int i = 0; i < eventLoops; i++) {
+            loops.add(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "manager-service-loop");
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+    }
+
+    /**
+     * Submits a configuration file for processing, returning immediately.
+     * <br> A configuration that can't be run - because of a circular dependency, or a task that fits neither its
+     * own resources nor the global pool - is failed through {@link ExternalManager#fail()}, as by
+     * {@link ManagerAppImpl}.
+     *
+     * @return future completed with true once all tasks of the configuration completed,
+     * or with false once it was failed
+     */
+    public CompletableFuture<Boolean> submit(File file) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        ExecutorService loop = loops.get(Math.floorMod(nextLoop.getAndIncrement(), loops.size()));
+        loop.execute(() -> {
+            try {
+                start(file, loop, result);
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private void start(File file, ExecutorService loop, CompletableFuture<Boolean> result) {
+        Configuration configuration = Configuration.fromFile(file);
+        TaskGraph graph = TaskGraph.of(configuration);
+        ResourcePool.Share share = pool.join(graph);
+        long[] capacity = graph.getCapacity();
+        share.limitToCapacity(capacity);
+        Optional<String> rejection = graph.findRejection(capacity);
+        if (!rejection.isPresent()) {
+            rejection = ExternalManagerBridge.findUnsupported(graph);
+        }
+        if (rejection.isPresent()) {
+            String reason = rejection.get();
+            LOGGER.warning(() -> file + ": " + reason);
+            factory.create(0, 0, 0).fail();
+            result.complete(false);
+            return;
+        }
+        new Context(configuration, graph, share, loop, result).dispatchPass();
+    }
+
+    /**
+     * Stops the event loops; submissions still in progress are abandoned
+     */
+    @Override
+    public void close() {
+        pool.close();
+        loops.forEach(ExecutorService::shutdownNow);
+    }
+
+    /**
+     * Scheduling context of one submission, confined to its event loop except for {@link #callback(int)}
+     */
+    private class Context {
+        private final TaskGraph graph;
+        private final ExternalManager manager;
+        private final Scheduler scheduler;
+        private final ExecutorService loop;
+        private final CompletableFuture<Boolean> result;
+        private final MpscQueue<Integer> calledBack = new MpscQueue<>();
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+        private final AtomicBoolean awaitingPool = new AtomicBoolean();
+
+        Context(Configuration configuration, TaskGraph graph, ResourcePool.Share share, ExecutorService loop,
+                CompletableFuture<Boolean> result) {
+            long cpus = configuration.getCpus();
+            long memory = configuration.getMemory();
+            long disks = configuration.getDisks();
+            this.graph = graph;
+            this.loop = loop;
+            this.result = result;
+            this.manager = ExternalManagerBridge.create(factory, cpus, memory, disks);
+            this.scheduler = new Scheduler(graph, policy, graph.getCapacity(),
+                    listener.start(graph, cpus, memory, disks), share);
+        }
+
+        /**
+         * Dispatches what fits, and if tasks are held back by the global pool, asks to be woken on its next release
+         */
+        void dispatchPass() {
+            long seen = pool.releases();
+            scheduler.dispatch(this::launch);
+            if (scheduler.allTasksComplete()) {
+                scheduler.events().finished();
+                result.complete(true);
+            } else if (scheduler.hasReadyTaskFitting() && awaitingPool.compareAndSet(false, true)) {
+                pool.awaitRelease(seen, () -> execute(() -> {
+                    awaitingPool.set(false);
+                    dispatchPass();
+                }));
+            }
+        }
+
+        private void launch(int id) {
+            Task task = graph.getTask(id);
+            ExternalManagerBridge.run(manager, task, () -> callback(id));
+        }
+
+        private void callback(int id) {
+            scheduler.events().calledBack(id);
+            calledBack.offer(id);
+            if (drainScheduled.compareAndSet(false, true)) {
+                execute(this::drain);
+            }
+        }
+
+        /**
+         * Runs a task on the event loop of the context, unless the service was closed and its loops stopped
+         */
+        private void execute(Runnable task) {
+            try {
+                loop.execute(task);
+            } catch (RejectedExecutionException e) {
+                // the service was closed, the submission is abandoned
+            }
+        }
+
+        /**
+         * Handles all completions queued so far as one batch, followed by a single dispatch pass
+         */
+        private void drain() {
+            drainScheduled.set(false);
+            calledBack.drain(scheduler::complete);
+            dispatchPass();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package cs.technion.ac.il.sd.app;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * MappedConfigurationLoader - loads very large configuration files in parallel.
+ * <br> The file is memory mapped and split into line aligned chunks, which are parsed concurrently on a
+ * {@link ForkJoinPool} by {@link ConfigurationParser}s. Each chunk yields its task definitions in file order, and
+ * the definitions of all chunks are then applied to the configuration in chunk order, so the result is the same
+ * as parsing the file sequentially.
+ */
+class MappedConfigurationLoader {
+
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+    private static final long MAX_CHUNK_SIZE = 1 << 28;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int PROBE_SIZE = 1 << 12;
+
+    private final ForkJoinPool pool;
+
+    MappedConfigurationLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    Configuration load(File file) throws IOException {
+        Configuration configuration = new Configuration();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long headerEnd = nextLineStart(channel, 0, size);
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+            new ConfigurationParser().parseHeader(header, 0, (int) headerEnd, configuration);
+
+            List<Callable<List<Definition>>> chunks = new ArrayList<>();
+            long chunkSize = chunkSize(size - headerEnd);
+            for (long start = headerEnd; start < size; ) {
+                long end = nextLineStart(channel, Math.min(size, start + chunkSize), size);
+                ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                chunks.add(() -> parseChunk(chunk, configuration.getResourceNames()));
+                start = end;
+            }
+            merge(pool.invokeAll(chunks), configuration);
+        }
+        return configuration;
+    }
+
+    private long chunkSize(long bytes) {
+        long chunkSize = bytes / ((long) pool.getParallelism() * CHUNKS_PER_THREAD);
+        return Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, chunkSize));
+    }
+
+    /**
+     * @return position following the first line break at or after position, or size if there is none
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        byte[] probe = new byte[PROBE_SIZE];
+        while (position < size) {
+            int read = channel.read(ByteBuffer.wrap(probe), position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe[i] == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static List<Definition> parseChunk(ByteBuffer chunk, List<String> resourceNames) {
+        List<Definition> definitions = new ArrayList<>();
+        new ConfigurationParser().parseTasks(chunk, 0, chunk.limit(), resourceNames,
+                (task, cpu, memory, disks, priority, named, deps) ->
+                        definitions.add(new Definition(task, cpu, memory, disks, priority, named, deps)));
+        return definitions;
+    }
+
+    /**
+     * Applies the definitions of all chunks in file order.
+     * Names are interned across chunks, as each chunk interns the names it parses on its own.
+     */
+    private static void merge(List<Future<List<Definition>>> chunks, Configuration configuration) throws IOException {
+        Map<String, String> names = new HashMap<>();
+        for (Future<List<Definition>> chunk : chunks) {
+            for (Definition d : join(chunk)) {
+                d.deps.replaceAll(name -> names.computeIfAbsent(name, n -> n));
+                configuration.addTask(names.computeIfAbsent(d.task, n -> n),
+                        d.cpu, d.memory, d.disks, d.priority, d.named, d.deps);
+            }
+        }
+    }
+
+    private static List<Definition> join(Future<List<Definition>> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            throw new AssertionError("interrupted while parsing configuration");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static class Definition {
+        private final String task;
+        private final long cpu;
+        private final long memory;
+        private final long disks;
+        private final int priority;
+        private final long[] named;
+        private final List<String> deps;
+
+        private Definition(String task, long cpu, long memory, long disks, int priority, long[] named,
+                           List<String> deps) {
+            this.task = task;
+            this.cpu = cpu;
+            this.memory = memory;
+            this.disks = disks;
+            this.priority = priority;
+            this.named = named;
+            this.deps = deps;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package cs.technion.ac.il.sd.app;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * MpscQueue - multi-producer single-consumer FIFO queue, used to hand completed tasks from the callback threads to
+ * the scheduling thread.
+ * <br> Producers link their element with a single atomic swap of the tail (Vyukov's intrusive MPSC list), so unlike
+ * {@link java.util.concurrent.LinkedBlockingQueue} no lock is taken on either side. The consumer drains whole
+ * batches with plain reads, and when the queue is empty parks until a producer unparks it; producers only pay for
+ * a single unpark per park of the consumer.
+ * <br> {@link #offer(Object)} may be called by any thread, all other methods only by one consumer thread at a time
+ * (different threads may consume in turn if each hand-over is ordered by a happens-before edge).
+ * A queue may be bounded, in which case producers also share an atomic element count.
+ *
+ * @param <E> type of the elements, which must not be null
+ */
+public final class MpscQueue<E> {
+
+    private static final class Node<E> {
+        E value;
+        volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+
+    private final AtomicReference<Node<E>> tail;
+    private Node<E> head;
+    private final int capacity;
+    private final AtomicInteger size;
+    private final AtomicReference<Thread> parked = new AtomicReference<>();
+
+    /**
+     * Creates an unbounded queue
+     */
+    public MpscQueue() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param capacity maximal number of elements in the queue, {@link Integer#MAX_VALUE} for none
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public MpscQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.head = new Node<>(null);
+        this.tail = new AtomicReference<>(head);
+        this.capacity = capacity;
+        this.size = capacity == Integer.MAX_VALUE ? null : new AtomicInteger();
+    }
+
+    /**
+     * Adds an element at the tail of the queue, unparking the consumer if it waits for one. May be called by any
+     * thread.
+     *
+     * @return true, or false if the queue is bounded and full
+     * @throws NullPointerException if e is null
+     */
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        if (size != null) {
+            int current;
+            do {
+                current = size.get();
+                if (current == capacity) {
+                    return false;
+                }
+            } while (!size.compareAndSet(current, current + 1));
+        }
+        Node<E> node = new Node<>(e);
+        tail.getAndSet(node).next = node;
+        if (parked.get() != null) {
+            Thread consumer = parked.getAndSet(null);
+            if (consumer != null) {
+                LockSupport.unpark(consumer);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the head of the queue, or null if it is empty
+     */
+    public E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        E value = next.value;
+        next.value = null;
+        head = next;
+        if (size != null) {
+            size.decrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * Waits until the queue is not empty, then removes its head
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public E take() throws InterruptedException {
+        return await(0);
+    }
+
+    /**
+     * Waits up to the given time for the queue not to be empty, then removes its head
+     *
+     * @return the head of the queue, or null if it stayed empty
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return await(Math.max(1, unit.toNanos(timeout)));
+    }
+
+    /**
+     * Parks until the head can be removed, for at most timeoutNanos unless it is 0.
+     * <br> The consumer parks only after announcing itself in {@link #parked} and finding the queue still empty,
+     * so a producer linking an element afterwards is sure to see it and unpark it. Only the first such producer
+     * takes the consumer out of {@link #parked}, so a park costs at most one unpark however many elements arrive.
+     */
+    private E await(long timeoutNanos) throws InterruptedException {
+        E value = poll();
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (value == null) {
+            long remaining = deadline - System.nanoTime();
+            if (timeoutNanos > 0 && remaining <= 0) {
+                return null;
+            }
+            parked.set(Thread.currentThread());
+            value = poll();
+            if (value == null) {
+                if (timeoutNanos > 0) {
+                    LockSupport.parkNanos(this, remaining);
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+            parked.lazySet(null);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (value == null) {
+                value = poll();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes all elements in the queue, in order
+     *
+     * @param sink called with each element removed
+     * @return number of elements removed
+     */
+    public int drain(Consumer<? super E> sink) {
+        return drain(sink, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes up to limit elements from the head of the queue, in order
+     *
+     * @param sink called with each element removed
+     * @param limit maximal number of elements to remove
+     * @return number of elements removed
+     */
+    public int drain(Consumer<? super E> sink, int limit) {
+        int count = 0;
+        for (Node<E> next = head.next; next != null && count < limit; next = head.next) {
+            E value = next.value;
+            next.value = null;
+            head = next;
+            count++;
+            sink.accept(value);
+        }
+        if (size != null && count > 0) {
+            size.addAndGet(-count);
+        }
+        return count;
+    }
+
+    /**
+     * Waits until the queue is not empty, then removes all its elements
+     *
+     * @param sink called with each element removed
+     * @return number of elements removed, at least one
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public int awaitDrain(Consumer<? super E> sink) throws InterruptedException {
+        sink.accept(take());
+        return 1 + drain(sink);
+    }
+
+    /**
+     * @return true iff the queue has no element linked yet
+     */
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+}
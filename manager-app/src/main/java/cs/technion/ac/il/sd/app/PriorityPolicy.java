@@ -0,0 +1,12 @@
+package cs.technion.ac.il.sd.app;
+
+/**
+ * PriorityPolicy - dispatches ready tasks strictly by priority, greedily skipping tasks that don't fit
+ */
+public class PriorityPolicy implements SchedulingPolicy {
+
+    @Override
+    public int[] dispatchOrder(TaskGraph graph, long[] capacity) {
+        return SchedulingPolicy.sortedIds(graph, SchedulingPolicy.byPriority(graph));
+    }
+}
@@ -0,0 +1,195 @@
+package cs.technion.ac.il.sd.app;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * ReadyQueue - the tasks of a {@link TaskGraph} that are ready to run, answering "the first task in dispatch order
+ * that fits the free resources".
+ * <br> Since all tasks are known in advance, each task has a fixed slot given by its position in the dispatch order,
+ * and the slots are the leaves of a segment tree. Every node of the tree keeps the number of ready tasks below it
+ * and their minimal demand of every resource, cpus, memory, disks and named resources alike. A query descends to the
+ * leftmost ready leaf, skipping every subtree whose minimal demand in some resource exceeds what is free, so when
+ * nothing fits it stops at the root.
+ * <br> Adding and removing a task take O(r log n) for r resources. A query takes O(r log n) when the skipped subtrees
+ * are decided by their minima, which is the common case; in the worst case, where the minima of a subtree come from
+ * different tasks none of which fits, it visits those subtrees as well.
+ * <br> Demands and minima are kept in flat arrays, {@code r} consecutive entries per slot or node, and free resources
+ * are given as {@link ResourceVector}s, so nothing is allocated after construction.
+ */
+public class ReadyQueue {
+
+    private static final int NONE = -1;
+
+    private final int leaves;
+    private final int resources;
+    private final int[] rank;
+    private final int[] taskAt;
+    private final long[] demand;
+    private final int[] count;
+    private final long[] min;
+
+    /**
+     * @param graph tasks that may become ready
+     * @param order all task ids of the graph, in dispatch order
+     */
+    public ReadyQueue(TaskGraph graph, int[] order) {
+        int leaves = 1;
+        while (leaves < order.length) {
+            leaves *= 2;
+        }
+        this.leaves = leaves;
+        this.resources = graph.getResourceCount();
+        this.rank = new int[graph.size()];
+        this.taskAt = new int[order.length];
+        this.demand = new long[order.length * resources];
+        for (int r = 0; r < order.length; r++) {
+            rank[order[r]] = r;
+            taskAt[r] = order[r];
+            System.arraycopy(graph.demand(order[r]), 0, demand, r * resources, resources);
+        }
+        this.count = new int[2 * leaves];
+        this.min = new long[2 * leaves * resources];
+        Arrays.fill(min, Long.MAX_VALUE);
+    }
+
+    public int size() {
+        return count[1];
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(int id) {
+        return count[leaves + rank[id]] == 1;
+    }
+
+    public void add(int id) {
+        int r = rank[id];
+        int node = leaves + r;
+        if (count[node] == 1) {
+            return;
+        }
+        count[node] = 1;
+        System.arraycopy(demand, r * resources, min, node * resources, resources);
+        update(node);
+    }
+
+    public void remove(int id) {
+        int node = leaves + rank[id];
+        if (count[node] == 0) {
+            return;
+        }
+        count[node] = 0;
+        Arrays.fill(min, node * resources, (node + 1) * resources, Long.MAX_VALUE);
+        update(node);
+    }
+
+    /**
+     * @return the first ready task in dispatch order, or -1 if there is none
+     */
+    public int peek() {
+        if (isEmpty()) {
+            return NONE;
+        }
+        int node = 1;
+        while (node < leaves) {
+            node = count[2 * node] > 0 ? 2 * node : 2 * node + 1;
+        }
+        return taskAt[node - leaves];
+    }
+
+    /**
+     * @param free free amount of every resource of the graph
+     * @return the first ready task in dispatch order whose demands fit the free resources, or -1 if there is none
+     */
+    public int peek(long[] free) {
+        int node = find(1, free, null);
+        return node == NONE ? NONE : taskAt[node - leaves];
+    }
+
+    /**
+     * Same as {@link #peek(long[])} for a graph with no named resources
+     */
+    public int peek(long cpus, long memory, long disks) {
+        return peek(baseResources(cpus, memory, disks));
+    }
+
+    /**
+     * Removes and returns the first ready task in dispatch order whose demands fit the free resources
+     *
+     * @param free free amount of every resource of the graph
+     * @return the removed task, or -1 if no ready task fits
+     */
+    public int poll(long[] free) {
+        return poll(free, null);
+    }
+
+    /**
+     * Removes and returns the first ready task in dispatch order whose demands fit the free resources and that is
+     * accepted. Subtrees are still skipped by their minima, but every fitting task before the one returned is tested.
+     *
+     * @param free free amount of every resource of the graph
+     * @param accept tests the id of a fitting task, or null to accept all of them
+     * @return the removed task, or -1 if no ready task fits and is accepted
+     */
+    public int poll(long[] free, IntPredicate accept) {
+        int node = find(1, free, accept);
+        if (node == NONE) {
+            return NONE;
+        }
+        int id = taskAt[node - leaves];
+        remove(id);
+        return id;
+    }
+
+    /**
+     * Same as {@link #poll(long[])} for a graph with no named resources
+     */
+    public int poll(long cpus, long memory, long disks) {
+        return poll(baseResources(cpus, memory, disks));
+    }
+
+    private long[] baseResources(long cpus, long memory, long disks) {
+        long[] free = new long[resources];
+        Arrays.fill(free, Long.MAX_VALUE);
+        free[ResourceVector.CPUS] = cpus;
+        free[ResourceVector.MEMORY] = memory;
+        free[ResourceVector.DISKS] = disks;
+        return free;
+    }
+
+    private int find(int node, long[] free, IntPredicate accept) {
+        if (count[node] == 0 || !minimaFit(node, free)) {
+            return NONE;
+        }
+        if (node >= leaves) {
+            return accept == null || accept.test(taskAt[node - leaves]) ? node : NONE;
+        }
+        int left = find(2 * node, free, accept);
+        return left != NONE ? left : find(2 * node + 1, free, accept);
+    }
+
+    private boolean minimaFit(int node, long[] free) {
+        int base = node * resources;
+        for (int r = 0; r < resources; r++) {
+            if (min[base + r] > free[r]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void update(int node) {
+        for (node /= 2; node > 0; node /= 2) {
+            int left = 2 * node;
+            int right = left + 1;
+            count[node] = count[left] + count[right];
+            int base = node * resources;
+            for (int r = 0; r < resources; r++) {
+                min[base + r] = Math.min(min[left * resources + r], min[right * resources + r]);
+            }
+        }
+    }
+}
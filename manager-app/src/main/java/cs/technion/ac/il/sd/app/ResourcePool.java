@@ -0,0 +1,171 @@
+package cs.technion.ac.il.sd.app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ResourcePool - resources shared by concurrent runs, each task taking its demands from the pool while it runs in
+ * addition to the resources of its own configuration.
+ * <br> The pool holds cpus, memory and disks, and every named resource by its name: a named resource enters the
+ * pool with the capacity declared by the first run that {@link #join(TaskGraph) joins} with it, and runs declaring
+ * the same name later share those units. A run reaches the pool through its {@link Share}, which maps the resource
+ * vectors of its graph to the resources of the pool.
+ * <br> A run that could not dispatch for lack of shared resources registers a waker through
+ * {@link #awaitRelease(long, Runnable)}, which is called on the next release by any run. All methods are thread safe.
+ */
+class ResourcePool {
+
+    private long[] capacity;
+    private long[] free;
+    private final Map<String, Integer> named = new HashMap<>();
+    private long releases;
+    private boolean closed;
+    private List<Runnable> waiters = new ArrayList<>();
+
+    ResourcePool(long cpus, long memory, long disks) {
+        this.capacity = new long[ResourceVector.BASE];
+        capacity[ResourceVector.CPUS] = cpus;
+        capacity[ResourceVector.MEMORY] = memory;
+        capacity[ResourceVector.DISKS] = disks;
+        this.free = capacity.clone();
+    }
+
+    /**
+     * Adds the named resources of the graph the pool doesn't hold yet, with the capacity the graph declares
+     *
+     * @return the share of the run of the graph
+     */
+    synchronized Share join(TaskGraph graph) {
+        List<String> names = graph.getResourceNames();
+        long[] declared = graph.getCapacity();
+        int[] slots = new int[ResourceVector.BASE + names.size()];
+        for (int r = 0; r < slots.length; r++) {
+            slots[r] = r < ResourceVector.BASE ? r : slot(names.get(r - ResourceVector.BASE), declared[r]);
+        }
+        return new Share(slots);
+    }
+
+    private int slot(String name, long declared) {
+        Integer slot = named.get(name);
+        if (slot == null) {
+            slot = capacity.length;
+            capacity = Arrays.copyOf(capacity, slot + 1);
+            free = Arrays.copyOf(free, slot + 1);
+            capacity[slot] = declared;
+            free[slot] = declared;
+            named.put(name, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * @return number of releases so far, to be passed to {@link #awaitRelease(long, Runnable)}
+     */
+    synchronized long releases() {
+        return releases;
+    }
+
+    /**
+     * Calls waker once resources are released after the given point, immediately if they already were
+     *
+     * @param seen value of {@link #releases()} when the caller last saw the free resources
+     * @param waker called once, on the releasing thread or on the calling thread, or never once the pool is
+     *              closed
+     */
+    void awaitRelease(long seen, Runnable waker) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (releases == seen) {
+                waiters.add(waker);
+                return;
+            }
+        }
+        waker.run();
+    }
+
+    /**
+     * Drops the registered wakers, which are never called, and ignores those registered later - the runs they
+     * would wake are abandoned
+     */
+    synchronized void close() {
+        closed = true;
+        waiters = new ArrayList<>();
+    }
+
+    /**
+     * Share - the view of the pool of one run, taking and returning resource vectors of its graph
+     */
+    final class Share {
+
+        /**
+         * Resource of the pool of every resource of the graph
+         */
+        private final int[] slots;
+
+        private Share(int[] slots) {
+            this.slots = slots;
+        }
+
+        /**
+         * Lowers every resource of available to at most the capacity of the pool
+         */
+        void limitToCapacity(long[] available) {
+            synchronized (ResourcePool.this) {
+                for (int r = 0; r < slots.length; r++) {
+                    available[r] = Math.min(available[r], capacity[slots[r]]);
+                }
+            }
+        }
+
+        /**
+         * Lowers every resource of available to at most what is free in the pool
+         */
+        void limit(long[] available) {
+            synchronized (ResourcePool.this) {
+                for (int r = 0; r < slots.length; r++) {
+                    available[r] = Math.min(available[r], free[slots[r]]);
+                }
+            }
+        }
+
+        /**
+         * Takes the resources demanded if they are free
+         *
+         * @return true iff the demands were taken
+         */
+        boolean tryAcquire(long[] demand) {
+            synchronized (ResourcePool.this) {
+                for (int r = 0; r < slots.length; r++) {
+                    if (demand[r] > free[slots[r]]) {
+                        return false;
+                    }
+                }
+                for (int r = 0; r < slots.length; r++) {
+                    free[slots[r]] -= demand[r];
+                }
+                return true;
+            }
+        }
+
+        /**
+         * Returns the resources demanded and calls every registered waker
+         */
+        void release(long[] demand) {
+            List<Runnable> wake;
+            synchronized (ResourcePool.this) {
+                for (int r = 0; r < slots.length; r++) {
+                    free[slots[r]] += demand[r];
+                }
+                releases++;
+                wake = waiters;
+                waiters = new ArrayList<>();
+            }
+            wake.forEach(Runnable::run);
+        }
+    }
+}
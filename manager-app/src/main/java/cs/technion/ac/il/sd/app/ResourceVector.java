@@ -0,0 +1,77 @@
+package cs.technion.ac.il.sd.app;
+
+/**
+ * ResourceVector - arithmetic on resource vectors, the {@code long[]} representation of an amount of every resource
+ * of a configuration: cpus, memory and disks at {@link #CPUS}, {@link #MEMORY} and {@link #DISKS}, followed by the
+ * named resources in the order the configuration declares them.
+ * <br> These are the only operations on the dispatch path, so they work in place on arrays owned by the caller and
+ * never allocate. Each operation covers the resources of its {@code free} (or {@code other}) vector, which may be
+ * a prefix of the demand vector.
+ * <br> Amounts are 64-bit, so that real cluster capacities fit, and the operations don't check for overflow: they
+ * rely on every demand being between 0 and the capacity, as {@link TaskGraph#findRejection} verifies, so that free
+ * amounts stay between 0 and the capacity too.
+ */
+final class ResourceVector {
+
+    static final int CPUS = 0;
+    static final int MEMORY = 1;
+    static final int DISKS = 2;
+    /**
+     * Number of resources every configuration has, named resources start at this index
+     */
+    static final int BASE = 3;
+
+    private ResourceVector() {
+    }
+
+    /**
+     * @return true iff no amount of the vector is negative
+     */
+    static boolean isNonNegative(long[] vector) {
+        for (long amount : vector) {
+            if (amount < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true iff demand fits in free in every resource of free
+     */
+    static boolean fits(long[] demand, long[] free) {
+        for (int r = 0; r < free.length; r++) {
+            if (demand[r] > free[r]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes demand from free
+     */
+    static void subtract(long[] free, long[] demand) {
+        for (int r = 0; r < free.length; r++) {
+            free[r] -= demand[r];
+        }
+    }
+
+    /**
+     * Returns demand to free
+     */
+    static void add(long[] free, long[] demand) {
+        for (int r = 0; r < free.length; r++) {
+            free[r] += demand[r];
+        }
+    }
+
+    /**
+     * Lowers every resource of other in target to at most its amount in other
+     */
+    static void min(long[] target, long[] other) {
+        for (int r = 0; r < other.length; r++) {
+            target[r] = Math.min(target[r], other[r]);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package cs.technion.ac.il.sd.app;
+
+import cs.technion.ac.il.sd.library.CompactDigraph;
+
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Scheduler - the dispatch state of one run of a {@link TaskGraph}: free resources, tasks ready to run, running and
+ * complete, independent of how tasks are actually executed.
+ * <br> The owner alternates between {@link #dispatch(IntConsumer)}, which launches every task the
+ * {@link SchedulingPolicy} picks, and {@link #complete(int)} for each task that finished meanwhile.
+ * {@link ManagerAppImpl} launches tasks on an {@link cs.technion.ac.il.sd.ExternalManager}, {@link Simulator}
+ * on a virtual clock. A scheduler is not thread safe.
+ * <br> The time at which every running task was dispatched is kept on the clock of the run and passed to the policy
+ * with the running tasks, for policies estimating when they complete.
+ * <br> Tasks are referred to by their id in the graph: running and complete tasks are bits of {@link BitSet}s
+ * and their numbers are counted, so state transitions and the end-of-run checks take constant time and allocate
+ * nothing.
+ */
+class Scheduler {
+
+    private final TaskGraph taskGraph;
+    private final SchedulingPolicy policy;
+    private final SchedulerListener.Run events;
+    private final ResourcePool.Share shared;
+    private final ReadyQueue readyToRun;
+    private final int[] remainingDependencies;
+    private final BitSet running;
+    private final BitSet complete;
+    private int runningCount;
+    private int completeCount;
+    private final long[] free;
+    private final long[] available;
+    private final LongSupplier clock;
+    private final long[] dispatchedAt;
+    private final SchedulingPolicy.RunningTasks runningTasks = new SchedulingPolicy.RunningTasks() {
+        @Override
+        public long now() {
+            return clock.getAsLong();
+        }
+
+        @Override
+        public int size() {
+            return runningCount;
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            for (int id = running.nextSetBit(0); id != -1; id = running.nextSetBit(id + 1)) {
+                action.accept(id);
+            }
+        }
+
+        @Override
+        public long dispatchedAt(int id) {
+            return dispatchedAt[id];
+        }
+    };
+
+    /**
+     * Creates the scheduler of a run, making all tasks with no dependencies ready
+     *
+     * @param capacity amount of every resource of the graph
+     */
+    Scheduler(TaskGraph taskGraph, SchedulingPolicy policy, long[] capacity, SchedulerListener.Run events) {
+        this(taskGraph, policy, capacity, events, null);
+    }
+
+    /**
+     * Creates the scheduler of a run whose tasks also take their demands from a pool shared with other runs
+     *
+     * @param capacity amount of every resource of the graph
+     * @param shared the share of the run of the shared pool, or null if there is none
+     */
+    Scheduler(TaskGraph taskGraph, SchedulingPolicy policy, long[] capacity, SchedulerListener.Run events,
+              ResourcePool.Share shared) {
+        this(taskGraph, policy, capacity, events, shared, elapsedNanos());
+    }
+
+    /**
+     * Creates the scheduler of a run timed by the given clock
+     *
+     * @param capacity amount of every resource of the graph
+     * @param shared the share of the run of the shared pool, or null if there is none
+     * @param clock current time of the run
+     */
+    Scheduler(TaskGraph taskGraph, SchedulingPolicy policy, long[] capacity, SchedulerListener.Run events,
+              ResourcePool.Share shared, LongSupplier clock) {
+        this.taskGraph = taskGraph;
+        this.policy = policy;
+        this.events = events;
+        this.shared = shared;
+        this.free = capacity.clone();
+        this.available = new long[free.length];
+        this.clock = clock;
+        this.dispatchedAt = new long[taskGraph.size()];
+        this.readyToRun = new ReadyQueue(taskGraph, policy.dispatchOrder(taskGraph, capacity.clone()));
+        this.running = new BitSet(taskGraph.size());
+        this.complete = new BitSet(taskGraph.size());
+        CompactDigraph graph = taskGraph.getGraph();
+        this.remainingDependencies = new int[taskGraph.size()];
+        for (int id = 0; id < taskGraph.size(); id++) {
+            remainingDependencies[id] = graph.inDegreeOf(id);
+            if (remainingDependencies[id] == 0) {
+                makeReady(id);
+            }
+        }
+    }
+
+    private static LongSupplier elapsedNanos() {
+        long start = System.nanoTime();
+        return () -> System.nanoTime() - start;
+    }
+
+    SchedulerListener.Run events() {
+        return events;
+    }
+
+    boolean allTasksLaunched() {
+        return completeCount + runningCount == taskGraph.size();
+    }
+
+    boolean allTasksComplete() {
+        return completeCount == taskGraph.size();
+    }
+
+    /**
+     * Launches ready tasks in the order picked by the scheduling policy, until it picks none.
+     *
+     * @param launcher starts a task, once its resources are taken
+     */
+    void dispatch(IntConsumer launcher) {
+        for (int id = nextToRun(); id != -1; id = nextToRun()) {
+            long[] demand = taskGraph.demand(id);
+            if (shared != null && !shared.tryAcquire(demand)) {
+                // another run took the shared resources since they were read
+                readyToRun.add(id);
+                break;
+            }
+            ResourceVector.subtract(free, demand);
+            dispatchedAt[id] = clock.getAsLong();
+            running.set(id);
+            runningCount++;
+            events.dispatched(id);
+            launcher.accept(id);
+        }
+        events.dispatchPassDone(readyToRun.size(), runningCount, free[ResourceVector.CPUS],
+                free[ResourceVector.MEMORY], free[ResourceVector.DISKS]);
+    }
+
+    /**
+     * Asks the policy for a task fitting the free resources of this run, and of the shared pool if there is one
+     */
+    private int nextToRun() {
+        System.arraycopy(free, 0, available, 0, free.length);
+        if (shared != null) {
+            shared.limit(available);
+        }
+        return policy.next(readyToRun, taskGraph, available, runningTasks);
+    }
+
+    /**
+     * @return true iff some ready task fits the free resources of this run, so that only the shared pool
+     * may be holding it back
+     */
+    boolean hasReadyTaskFitting() {
+        return readyToRun.peek(free) != -1;
+    }
+
+    /**
+     * Releases the resources and the dependents of a task that finished
+     */
+    void complete(int id) {
+        ResourceVector.add(free, taskGraph.demand(id));
+        if (shared != null) {
+            shared.release(taskGraph.demand(id));
+        }
+        if (running.get(id)) {
+            running.clear(id);
+            runningCount--;
+        }
+        if (!complete.get(id)) {
+            complete.set(id);
+            completeCount++;
+        }
+        events.completed(id);
+        CompactDigraph graph = taskGraph.getGraph();
+        for (int i = 0; i < graph.outDegreeOf(id); i++) {
+            releaseDependency(graph.getSuccessor(id, i));
+        }
+    }
+
+    /**
+     * Decrements the remaining-predecessor counter of a task whose dependency completed,
+     * making it ready to run once all of its dependencies are done.
+     * Only the direct successors of a completed task are visited, so the cost of a completion
+     * is proportional to its out-degree rather than to the size of the graph.
+     */
+    private void releaseDependency(int id) {
+        if (--remainingDependencies[id] == 0) {
+            makeReady(id);
+        }
+    }
+
+    private void makeReady(int id) {
+        readyToRun.add(id);
+        events.ready(id);
+    }
+}
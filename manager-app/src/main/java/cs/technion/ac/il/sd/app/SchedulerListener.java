@@ -0,0 +1,79 @@
+package cs.technion.ac.il.sd.app;
+
+/**
+ * SchedulerListener - instrumentation hook of {@link ManagerAppImpl}, notified of every scheduling event.
+ * <br> For every configuration it processes, the manager calls {@link #start} once and then reports the events
+ * of that run to the returned {@link Run}. All methods are called on the thread processing the configuration,
+ * except {@link Run#calledBack(int)}, which is called on the thread of the {@link cs.technion.ac.il.sd.ExternalManager}
+ * callback, so implementations read the clock themselves and must keep the cost of each event small.
+ * <br> {@link ManagerModule} binds {@link #NONE}; bind another instance to collect metrics or traces.
+ */
+public interface SchedulerListener {
+
+    /**
+     * Ignores all events
+     */
+    SchedulerListener NONE = (graph, cpus, memory, disks) -> Run.NONE;
+
+    /**
+     * Called once the configuration was accepted, before any task is dispatched
+     *
+     * @param graph tasks of the configuration, events refer to tasks by their id in it
+     * @param cpus total cpus
+     * @param memory total memory
+     * @param disks total disks
+     * @return the listener of this run
+     */
+    Run start(TaskGraph graph, long cpus, long memory, long disks);
+
+    /**
+     * Events of a single run, all ignored by default
+     */
+    interface Run {
+
+        Run NONE = new Run() {
+        };
+
+        /**
+         * All dependencies of the task are complete
+         */
+        default void ready(int id) {
+        }
+
+        /**
+         * The task is about to be passed to {@link cs.technion.ac.il.sd.ExternalManager#run}
+         */
+        default void dispatched(int id) {
+        }
+
+        /**
+         * The callback of the task fired, called on the thread of the callback
+         */
+        default void calledBack(int id) {
+        }
+
+        /**
+         * The manager handled the completion of the task, releasing its resources and dependents
+         */
+        default void completed(int id) {
+        }
+
+        /**
+         * A dispatch pass ended; the state reported holds until the next pass
+         *
+         * @param ready number of tasks ready to run that were not dispatched
+         * @param running number of dispatched tasks not completed yet
+         * @param freeCpus cpus not used by running tasks
+         * @param freeMemory memory not used by running tasks
+         * @param freeDisks disks not used by running tasks
+         */
+        default void dispatchPassDone(int ready, int running, long freeCpus, long freeMemory, long freeDisks) {
+        }
+
+        /**
+         * All tasks were dispatched; completions of running tasks are no longer handled
+         */
+        default void finished() {
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package cs.technion.ac.il.sd.app;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * SchedulerMetrics - a {@link SchedulerListener} aggregating the runs it listens to into lock-free histograms
+ * and counters:
+ * <ul>
+ * <li> callback latency - from a callback firing until the manager handles the completion
+ * <li> dispatch latency - from a task becoming ready until it is passed to the external manager
+ * <li> ready and running queue sizes, sampled after every dispatch pass, and their current totals over the runs
+ * in progress
+ * <li> cpu, memory and disk utilization, averaged over the time of all runs
+ * </ul>
+ * Metrics are read as a {@link Snapshot}, on demand or periodically through {@link #dumpPeriodically}.
+ * To collect them, bind an instance in place of {@link SchedulerListener#NONE}, for instance
+ * {@code bind(SchedulerListener.class).toInstance(metrics)}.
+ */
+public class SchedulerMetrics implements SchedulerListener {
+
+    private final Histogram callbackLatency = new Histogram();
+    private final Histogram dispatchLatency = new Histogram();
+    private final Histogram readySize = new Histogram();
+    private final Histogram runningSize = new Histogram();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder ready = new LongAdder();
+    private final LongAdder running = new LongAdder();
+    private final DoubleAdder usedCpuTime = new DoubleAdder();
+    private final DoubleAdder usedMemoryTime = new DoubleAdder();
+    private final DoubleAdder usedDisksTime = new DoubleAdder();
+    private final DoubleAdder cpuTime = new DoubleAdder();
+    private final DoubleAdder memoryTime = new DoubleAdder();
+    private final DoubleAdder disksTime = new DoubleAdder();
+
+    @Override
+    public Run start(TaskGraph graph, long cpus, long memory, long disks) {
+        return new MetricsRun(graph.size(), cpus, memory, disks);
+    }
+
+    /**
+     * @return the current values of all metrics
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Passes a snapshot to sink at a fixed rate, until the returned future is cancelled
+     *
+     * @param executor executor running the dump
+     * @param period time between dumps
+     * @param unit unit of period
+     * @param sink consumer of the snapshots, for instance {@code System.out::println}
+     */
+    public ScheduledFuture<?> dumpPeriodically(ScheduledExecutorService executor, long period, TimeUnit unit,
+                                               Consumer<? super Snapshot> sink) {
+        return executor.scheduleAtFixedRate(() -> sink.accept(snapshot()), period, period, unit);
+    }
+
+    private class MetricsRun implements Run {
+        private final long cpus;
+        private final long memory;
+        private final long disks;
+        private final long[] readyAt;
+        private final AtomicLongArray calledBackAt;
+        private long lastPass;
+        private int lastReady;
+        private int lastRunning;
+        private long usedCpus;
+        private long usedMemory;
+        private long usedDisks;
+
+        MetricsRun(int tasks, long cpus, long memory, long disks) {
+            this.cpus = cpus;
+            this.memory = memory;
+            this.disks = disks;
+            this.readyAt = new long[tasks];
+            this.calledBackAt = new AtomicLongArray(tasks);
+            this.lastPass = System.nanoTime();
+        }
+
+        @Override
+        public void ready(int id) {
+            readyAt[id] = System.nanoTime();
+        }
+
+        @Override
+        public void dispatched(int id) {
+            dispatchLatency.record(System.nanoTime() - readyAt[id]);
+            dispatched.increment();
+        }
+
+        @Override
+        public void calledBack(int id) {
+            calledBackAt.set(id, System.nanoTime());
+        }
+
+        @Override
+        public void completed(int id) {
+            callbackLatency.record(Math.max(0, System.nanoTime() - calledBackAt.get(id)));
+            completed.increment();
+        }
+
+        @Override
+        public void dispatchPassDone(int ready, int running, long freeCpus, long freeMemory, long freeDisks) {
+            accumulate(System.nanoTime());
+            usedCpus = cpus - freeCpus;
+            usedMemory = memory - freeMemory;
+            usedDisks = disks - freeDisks;
+            readySize.record(ready);
+            runningSize.record(running);
+            // the totals over all runs move by the change of this run since its last pass
+            SchedulerMetrics.this.ready.add(ready - lastReady);
+            SchedulerMetrics.this.running.add(running - lastRunning);
+            lastReady = ready;
+            lastRunning = running;
+        }
+
+        @Override
+        public void finished() {
+            accumulate(System.nanoTime());
+            SchedulerMetrics.this.ready.add(-lastReady);
+            SchedulerMetrics.this.running.add(-lastRunning);
+            lastReady = 0;
+            lastRunning = 0;
+        }
+
+        /**
+         * Adds the usage since the last pass, which held until now, to the utilization integrals
+         */
+        private void accumulate(long now) {
+            double elapsed = now - lastPass;
+            lastPass = now;
+            usedCpuTime.add(usedCpus * elapsed);
+            usedMemoryTime.add(usedMemory * elapsed);
+            usedDisksTime.add(usedDisks * elapsed);
+            cpuTime.add(cpus * elapsed);
+            memoryTime.add(memory * elapsed);
+            disksTime.add(disks * elapsed);
+        }
+    }
+
+    /**
+     * Immutable values of the metrics at some point in time. Latencies are in nanoseconds, utilizations are
+     * fractions in {@code [0, 1]}.
+     */
+    public static final class Snapshot {
+        private final Histogram.Summary callbackLatency;
+        private final Histogram.Summary dispatchLatency;
+        private final Histogram.Summary readySize;
+        private final Histogram.Summary runningSize;
+        private final long dispatched;
+        private final long completed;
+        private final int ready;
+        private final int running;
+        private final double cpuUtilization;
+        private final double memoryUtilization;
+        private final double diskUtilization;
+
+        private Snapshot(SchedulerMetrics metrics) {
+            this.callbackLatency = metrics.callbackLatency.summary();
+            this.dispatchLatency = metrics.dispatchLatency.summary();
+            this.readySize = metrics.readySize.summary();
+            this.runningSize = metrics.runningSize.summary();
+            this.dispatched = metrics.dispatched.sum();
+            this.completed = metrics.completed.sum();
+            this.ready = (int) metrics.ready.sum();
+            this.running = (int) metrics.running.sum();
+            this.cpuUtilization = ratio(metrics.usedCpuTime.sum(), metrics.cpuTime.sum());
+            this.memoryUtilization = ratio(metrics.usedMemoryTime.sum(), metrics.memoryTime.sum());
+            this.diskUtilization = ratio(metrics.usedDisksTime.sum(), metrics.disksTime.sum());
+        }
+
+        private static double ratio(double used, double total) {
+            return total == 0 ? 0 : used / total;
+        }
+
+        public Histogram.Summary getCallbackLatency() {
+            return callbackLatency;
+        }
+
+        public Histogram.Summary getDispatchLatency() {
+            return dispatchLatency;
+        }
+
+        public Histogram.Summary getReadySize() {
+            return readySize;
+        }
+
+        public Histogram.Summary getRunningSize() {
+            return runningSize;
+        }
+
+        public long getDispatched() {
+            return dispatched;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        /**
+         * @return number of ready tasks of all runs in progress, each after its last dispatch pass
+         */
+        public int getReady() {
+            return ready;
+        }
+
+        /**
+         * @return number of running tasks of all runs in progress, each after its last dispatch pass
+         */
+        public int getRunning() {
+            return running;
+        }
+
+        public double getCpuUtilization() {
+            return cpuUtilization;
+        }
+
+        public double getMemoryUtilization() {
+            return memoryUtilization;
+        }
+
+        public double getDiskUtilization() {
+            return diskUtilization;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("dispatched=%d completed=%d ready=%d running=%d%n"
+                            + "callback latency (ns): %s%n"
+                            + "dispatch latency (ns): %s%n"
+                            + "ready size: %s%n"
+                            + "running size: %s%n"
+                            + "utilization: cpu=%.3f memory=%.3f disks=%.3f",
+                    dispatched, completed, ready, running, callbackLatency, dispatchLatency, readySize, runningSize,
+                    cpuUtilization, memoryUtilization, diskUtilization);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package cs.technion.ac.il.sd.app;
+
+import java.util.Comparator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * SchedulingPolicy - decides which ready task is dispatched next.
+ * <br> A policy fixes the order of all tasks of a {@link TaskGraph} once, before dispatching starts, and then
+ * picks tasks from the {@link ReadyQueue} built on that order. By default it picks the first ready task in order
+ * that fits the free resources (greedy first fit).
+ */
+public interface SchedulingPolicy {
+
+    /**
+     * @param graph tasks to dispatch
+     * @param capacity total amount of every resource of the graph
+     * @return all task ids of the graph, in the order in which ready tasks should be considered for dispatch
+     */
+    int[] dispatchOrder(TaskGraph graph, long[] capacity);
+
+    /**
+     * Removes the next task to dispatch from the ready queue
+     *
+     * @param ready ready tasks, ordered by {@link #dispatchOrder(TaskGraph, long[])}
+     * @param graph tasks to dispatch
+     * @param free free amount of every resource of the graph, owned by the caller and not to be modified
+     * @param running tasks of the graph running now
+     * @return the task to dispatch now, or -1 if no task should be dispatched until another task completes
+     */
+    default int next(ReadyQueue ready, TaskGraph graph, long[] free, RunningTasks running) {
+        return ready.poll(free);
+    }
+
+    /**
+     * RunningTasks - the tasks of a run that were dispatched and did not complete yet, with the time of their
+     * dispatch on the clock of the run: {@link System#nanoTime()} nanoseconds since the run started for the managers,
+     * the virtual time of the {@link Simulator} for a simulation
+     */
+    interface RunningTasks {
+
+        /**
+         * @return current time on the clock of the run
+         */
+        long now();
+
+        /**
+         * @return number of running tasks
+         */
+        int size();
+
+        /**
+         * Performs action on the id of every running task
+         */
+        void forEach(IntConsumer action);
+
+        /**
+         * @param id a running task
+         * @return time at which the task was dispatched
+         */
+        long dispatchedAt(int id);
+    }
+
+    /**
+     * @return all task ids of the graph sorted by comparator, tasks it considers equal in the order of the graph
+     */
+    static int[] sortedIds(TaskGraph graph, Comparator<Integer> comparator) {
+        return IntStream.range(0, graph.size())
+                .boxed()
+                .sorted(comparator)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Compares task ids by the priority of their tasks
+     */
+    static Comparator<Integer> byPriority(TaskGraph graph) {
+        return Comparator.comparingInt(id -> graph.getTask(id).getPriority());
+    }
+}
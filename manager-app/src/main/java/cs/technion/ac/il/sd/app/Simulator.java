@@ -0,0 +1,136 @@
+package cs.technion.ac.il.sd.app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
+
+/**
+ * Simulator - discrete-event replay of a configuration under a {@link SchedulingPolicy}, with given task
+ * durations instead of an {@link cs.technion.ac.il.sd.ExternalManager}.
+ * <br> Dispatching follows {@link ManagerAppImpl}: a dispatch pass, then all tasks finishing at the earliest
+ * pending time are completed together, then another pass, until all tasks are complete. Time is virtual, so a
+ * configuration that takes hours runs in the time its scheduling decisions take. Durations may be modelled, or
+ * taken from a recorded {@link Trace.Run#getDurations()}.
+ */
+public class Simulator {
+
+    private Simulator() {
+    }
+
+    /**
+     * Simulates a configuration
+     *
+     * @param duration duration of every task, in any time unit
+     * @throws IllegalArgumentException if the configuration can't be processed, or a duration is negative
+     */
+    public static Result simulate(Configuration configuration, SchedulingPolicy policy,
+                                  ToLongFunction<Task> duration) {
+        TaskGraph graph = TaskGraph.of(configuration);
+        long[] durations = new long[graph.size()];
+        for (int id = 0; id < durations.length; id++) {
+            durations[id] = duration.applyAsLong(graph.getTask(id));
+        }
+        return simulate(graph, configuration.getCpus(), configuration.getMemory(), configuration.getDisks(),
+                policy, durations);
+    }
+
+    /**
+     * Simulates a task graph with the given cpus, memory and disks, and the named resources of its configuration
+     *
+     * @param durations duration of every task by id, in any time unit
+     * @throws IllegalArgumentException if the graph can't be processed with the given resources,
+     * or a duration is negative
+     */
+    public static Result simulate(TaskGraph graph, long cpus, long memory, long disks, SchedulingPolicy policy,
+                                  long[] durations) {
+        Optional<String> rejection = graph.findRejection(graph.capacity(cpus, memory, disks));
+        if (rejection.isPresent()) {
+            throw new IllegalArgumentException(rejection.get());
+        }
+        for (int id = 0; id < graph.size(); id++) {
+            if (durations[id] < 0) {
+                throw new IllegalArgumentException("negative duration of task " + graph.getTask(id).getName());
+            }
+        }
+
+        long[] start = new long[graph.size()];
+        long[] finish = new long[graph.size()];
+        List<Integer> order = new ArrayList<>(graph.size());
+        PriorityQueue<Integer> pending = new PriorityQueue<>(
+                (a, b) -> finish[a] != finish[b] ? Long.compare(finish[a], finish[b]) : Integer.compare(a, b));
+        long[] now = {0};
+        Scheduler scheduler = new Scheduler(graph, policy, graph.capacity(cpus, memory, disks),
+                SchedulerListener.Run.NONE, null, () -> now[0]);
+        while (!scheduler.allTasksComplete()) {
+            scheduler.dispatch(id -> {
+                start[id] = now[0];
+                finish[id] = now[0] + durations[id];
+                order.add(id);
+                pending.add(id);
+            });
+            if (pending.isEmpty()) {
+                throw new IllegalStateException("no task dispatched while none is running");
+            }
+            now[0] = finish[pending.peek()];
+            while (!pending.isEmpty() && finish[pending.peek()] == now[0]) {
+                scheduler.complete(pending.poll());
+            }
+        }
+        return new Result(graph, start, finish, order.stream().mapToInt(Integer::intValue).toArray(), now[0]);
+    }
+
+    /**
+     * Outcome of a simulation
+     */
+    public static final class Result {
+        private final TaskGraph graph;
+        private final long[] start;
+        private final long[] finish;
+        private final int[] order;
+        private final long makespan;
+
+        private Result(TaskGraph graph, long[] start, long[] finish, int[] order, long makespan) {
+            this.graph = graph;
+            this.start = start;
+            this.finish = finish;
+            this.order = order;
+            this.makespan = makespan;
+        }
+
+        /**
+         * @return time at which the last task finished
+         */
+        public long getMakespan() {
+            return makespan;
+        }
+
+        public long getStart(int id) {
+            return start[id];
+        }
+
+        public long getFinish(int id) {
+            return finish[id];
+        }
+
+        /**
+         * @return task ids in the order they were dispatched
+         */
+        public int[] getDispatchOrder() {
+            return Arrays.copyOf(order, order.length);
+        }
+
+        /**
+         * @return tasks in the order they were dispatched
+         */
+        public List<Task> getDispatchedTasks() {
+            List<Task> tasks = new ArrayList<>(order.length);
+            for (int id : order) {
+                tasks.add(graph.getTask(id));
+            }
+            return tasks;
+        }
+    }
+}
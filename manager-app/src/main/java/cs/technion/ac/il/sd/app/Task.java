@@ -1,15 +1,21 @@
 package cs.technion.ac.il.sd.app;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * Represents a runnable Task
  */
 public class Task  implements Comparable{
 
-    private final int cpu;
-    private final int memory;
-    private final int disks;
+    private static final long[] NO_NAMED_DEMANDS = new long[0];
+
+    private final long cpu;
+    private final long memory;
+    private final long disks;
     private final int priority;
     private final String name;
+    private final long[] named;
 
     @Override
     public String toString() {
@@ -18,30 +24,48 @@ public class Task  implements Comparable{
                 ", cpu=" + cpu +
                 ", memory=" + memory +
                 ", disks=" + disks +
+                (named.length > 0 ? ", named=" + Arrays.toString(named) : "") +
                 ", priority=" + priority +
                 '}';
     }
 
-    public Task(String name, int cpu, int memory, int disks, int priority) {
+    public Task(String name, long cpu, long memory, long disks, int priority) {
+        this(name, cpu, memory, disks, priority, NO_NAMED_DEMANDS);
+    }
+
+    /**
+     * @param named demands of the named resources of the configuration, in the order they are declared in;
+     *              resources past its end are not demanded
+     */
+    public Task(String name, long cpu, long memory, long disks, int priority, long[] named) {
         this.name = name;
         this.cpu = cpu;
         this.memory = memory;
         this.disks = disks;
         this.priority = priority;
+        this.named = named.length == 0 ? NO_NAMED_DEMANDS : named.clone();
     }
 
-    public int getCpu() {
+    public long getCpu() {
         return cpu;
     }
 
-    public int getMemory() {
+    public long getMemory() {
         return memory;
     }
 
-    public int getDisks() {
+    public long getDisks() {
         return disks;
     }
 
+    /**
+     * @param resource index of a named resource of the configuration, in declaration order
+     * @return the demand of the resource, 0 if the task doesn't demand it
+     */
+    public long getNamedDemand(int resource) {
+        return resource < named.length ? named[resource] : 0;
+    }
+
     public int getPriority() {
         return priority;
     }
@@ -54,8 +78,14 @@ public class Task  implements Comparable{
     public boolean equals(Object obj) {
         if(!(obj instanceof Task)) return false;
         Task other = (Task)obj;
-        return name == other.name && cpu == other.cpu && memory == other.memory && disks == other.disks && priority == other.priority;
+        return name.equals(other.name) && cpu == other.cpu && memory == other.memory && disks == other.disks && priority == other.priority
+                && Arrays.equals(named, other.named);
+
+    }
 
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(name, cpu, memory, disks, priority) + Arrays.hashCode(named);
     }
 
     @Override
@@ -0,0 +1,184 @@
+package cs.technion.ac.il.sd.app;
+
+import cs.technion.ac.il.sd.library.CompactDigraph;
+import cs.technion.ac.il.sd.library.CriticalPath;
+import cs.technion.ac.il.sd.library.GraphUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * TaskGraph - the dependency graph of a {@link Configuration}, compiled once into an immutable
+ * {@link CompactDigraph}.
+ * Every task is assigned an int id in {@code 0..size()-1}, and an edge d -> t means t depends on d.
+ * <br> The demands of every task and the capacity of the configuration are also compiled into
+ * {@link ResourceVector}s over all resources of the configuration.
+ */
+public class TaskGraph {
+
+    private final Task[] tasks;
+    private final CompactDigraph graph;
+    private final List<String> resourceNames;
+    private final long[] capacity;
+    private final long[][] demands;
+
+    private TaskGraph(Task[] tasks, CompactDigraph graph, Configuration configuration) {
+        this.tasks = tasks;
+        this.graph = graph;
+        this.resourceNames = configuration.getResourceNames();
+        int resources = ResourceVector.BASE + resourceNames.size();
+        this.capacity = new long[resources];
+        capacity[ResourceVector.CPUS] = configuration.getCpus();
+        capacity[ResourceVector.MEMORY] = configuration.getMemory();
+        capacity[ResourceVector.DISKS] = configuration.getDisks();
+        for (int r = ResourceVector.BASE; r < resources; r++) {
+            capacity[r] = configuration.getNamedCapacity(r - ResourceVector.BASE);
+        }
+        this.demands = new long[tasks.length][];
+        for (int id = 0; id < tasks.length; id++) {
+            long[] demand = new long[resources];
+            demand[ResourceVector.CPUS] = tasks[id].getCpu();
+            demand[ResourceVector.MEMORY] = tasks[id].getMemory();
+            demand[ResourceVector.DISKS] = tasks[id].getDisks();
+            for (int r = ResourceVector.BASE; r < resources; r++) {
+                demand[r] = tasks[id].getNamedDemand(r - ResourceVector.BASE);
+            }
+            demands[id] = demand;
+        }
+    }
+
+    public static TaskGraph of(Configuration configuration) {
+        Task[] tasks = configuration.getTasks().toArray(new Task[0]);
+        Map<String, Integer> nameToId = new HashMap<>();
+        for (int id = 0; id < tasks.length; id++) {
+            nameToId.put(tasks[id].getName(), id);
+        }
+        CompactDigraph.Builder builder = CompactDigraph.builder(tasks.length);
+        for (int id = 0; id < tasks.length; id++) {
+            for (Task dependency : configuration.getDependenciesOf(tasks[id])) {
+                builder.addEdge(nameToId.get(dependency.getName()), id);
+            }
+        }
+        return new TaskGraph(tasks, builder.build(), configuration);
+    }
+
+    public int size() {
+        return tasks.length;
+    }
+
+    public Task getTask(int id) {
+        return tasks[id];
+    }
+
+    public CompactDigraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return number of resources of the configuration, its named resources included
+     */
+    public int getResourceCount() {
+        return capacity.length;
+    }
+
+    /**
+     * @return names of the resources declared besides cpus, memory and disks, in declaration order
+     */
+    public List<String> getResourceNames() {
+        return resourceNames;
+    }
+
+    /**
+     * @return amount of every resource of the configuration
+     */
+    public long[] getCapacity() {
+        return capacity.clone();
+    }
+
+    /**
+     * @return the capacity of the configuration with the given cpus, memory and disks instead of its own
+     */
+    long[] capacity(long cpus, long memory, long disks) {
+        long[] capacity = getCapacity();
+        capacity[ResourceVector.CPUS] = cpus;
+        capacity[ResourceVector.MEMORY] = memory;
+        capacity[ResourceVector.DISKS] = disks;
+        return capacity;
+    }
+
+    /**
+     * @return demand of the task of every resource of the configuration - not a copy, must not be modified
+     */
+    long[] demand(int id) {
+        return demands[id];
+    }
+
+    public boolean hasCircularDependency() {
+        return !graph.isAcyclic();
+    }
+
+    /**
+     * @return tasks forming a circular dependency, each a dependency of the next and the last a dependency of the
+     * first, or an empty list if there is none
+     */
+    public List<Task> getCircularDependency() {
+        return GraphUtils.topologicalSort(graph).getCycle().stream()
+                .map(this::getTask)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds all circular dependencies at once: every cycle of dependencies lies within one of the returned groups
+     * of tasks, all depending on each other directly or indirectly
+     *
+     * @return the groups of tasks with a circular dependency, or an empty list if there is none
+     */
+    public List<List<Task>> getCircularDependencies() {
+        return GraphUtils.stronglyConnectedComponents(graph).getCyclicComponents().stream()
+                .map(component -> component.stream().map(this::getTask).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Estimates how long running the configuration takes with unlimited resources
+     *
+     * @param duration estimated duration of each task
+     * @return critical path analysis over task ids, or Optional.empty if there is a circular dependency
+     */
+    public Optional<CriticalPath<Integer>> criticalPath(ToLongFunction<Task> duration) {
+        return GraphUtils.criticalPath(graph, id -> duration.applyAsLong(tasks[id]));
+    }
+
+    /**
+     * Checks that all tasks can be run with the given resources, in dependency order.
+     * <br> Accepted demands are between 0 and the capacity, which keeps the {@link ResourceVector} arithmetic of
+     * the dispatch path within the capacity, free of overflow checks.
+     *
+     * @param capacity amount of every resource available
+     * @return why the tasks can't be run, or Optional.empty if they can
+     */
+    Optional<String> findRejection(long[] capacity) {
+        if (!ResourceVector.isNonNegative(capacity)) {
+            return Optional.of("negative resource capacity");
+        }
+        for (int id = 0; id < tasks.length; id++) {
+            if (!ResourceVector.isNonNegative(demands[id])) {
+                return Optional.of("task " + tasks[id].getName() + " needs a negative amount of resources");
+            }
+            if (!ResourceVector.fits(demands[id], capacity)) {
+                return Optional.of("task " + tasks[id].getName() + " needs more resources than available");
+            }
+        }
+        List<List<Task>> cycles = getCircularDependencies();
+        if (!cycles.isEmpty()) {
+            return Optional.of("circular dependency among " + cycles.stream()
+                    .map(cycle -> cycle.stream().map(Task::getName).collect(Collectors.joining(", ", "{", "}")))
+                    .collect(Collectors.joining(" and ")));
+        }
+        return Optional.empty();
+    }
+}
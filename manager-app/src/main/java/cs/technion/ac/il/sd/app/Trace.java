@@ -0,0 +1,190 @@
+package cs.technion.ac.il.sd.app;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Trace - scheduling events recorded by a {@link TraceRecorder}, read back for analysis or for replay by the
+ * {@link Simulator}.
+ * <br> The log is a header (magic 'SDTR', version) followed by records, all big endian:
+ * <pre>
+ * START:        type, run, task count, cpus, memory, disks, time
+ * other events: type, run, task id, time
+ * </pre>
+ * where type is a byte, cpus, memory, disks and time longs, time being {@link System#nanoTime()}, and all other
+ * fields ints. Runs are numbered from 0 in the order they started; the events of different runs may interleave.
+ */
+public class Trace {
+
+    static final int MAGIC = 0x53445452;
+    static final int VERSION = 1;
+
+    /**
+     * Kinds of recorded events, written as their ordinal
+     */
+    public enum EventType {
+        START, READY, DISPATCHED, CALLED_BACK, COMPLETED
+    }
+
+    private final List<Run> runs;
+
+    private Trace(List<Run> runs) {
+        this.runs = runs;
+    }
+
+    /**
+     * Reads a trace file. A last record cut short, as left by a process that stopped while recording, is ignored.
+     *
+     * @throws IllegalArgumentException if the file is not a trace of the current version, or has a record of an
+     *                                  unknown type or of a run that was not started before
+     */
+    public static Trace read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("not a trace");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("unsupported trace version " + version);
+            }
+            List<Run> runs = new ArrayList<>();
+            try {
+                for (int type = in.read(); type != -1; type = in.read()) {
+                    if (type >= EventType.values().length) {
+                        throw new IllegalArgumentException("unknown event type " + type);
+                    }
+                    int run = in.readInt();
+                    if (type == EventType.START.ordinal()) {
+                        if (run != runs.size()) {
+                            throw new IllegalArgumentException("run " + run + " started out of order");
+                        }
+                        int taskCount = in.readInt();
+                        runs.add(new Run(taskCount, in.readLong(), in.readLong(), in.readLong(), in.readLong()));
+                    } else {
+                        if (run < 0 || run >= runs.size()) {
+                            throw new IllegalArgumentException("event of run " + run + " that was not started");
+                        }
+                        int id = in.readInt();
+                        Run owner = runs.get(run);
+                        owner.events.add(new Event(EventType.values()[type], id, in.readLong() - owner.start));
+                    }
+                }
+            } catch (EOFException e) {
+                // the last record was not completely written
+            }
+            return new Trace(Collections.unmodifiableList(runs));
+        }
+    }
+
+    public List<Run> getRuns() {
+        return runs;
+    }
+
+    /**
+     * The events of one processed configuration
+     */
+    public static final class Run {
+        private final int taskCount;
+        private final long cpus;
+        private final long memory;
+        private final long disks;
+        private final long start;
+        private final List<Event> events = new ArrayList<>();
+
+        private Run(int taskCount, long cpus, long memory, long disks, long start) {
+            this.taskCount = taskCount;
+            this.cpus = cpus;
+            this.memory = memory;
+            this.disks = disks;
+            this.start = start;
+        }
+
+        public int getTaskCount() {
+            return taskCount;
+        }
+
+        public long getCpus() {
+            return cpus;
+        }
+
+        public long getMemory() {
+            return memory;
+        }
+
+        public long getDisks() {
+            return disks;
+        }
+
+        /**
+         * @return the events of the run, in the order they were recorded
+         */
+        public List<Event> getEvents() {
+            return Collections.unmodifiableList(events);
+        }
+
+        /**
+         * @return for every task id, the time in nanoseconds from its dispatch until its callback fired,
+         * or -1 if either was not recorded
+         */
+        public long[] getDurations() {
+            long[] dispatched = new long[taskCount];
+            long[] durations = new long[taskCount];
+            Arrays.fill(dispatched, -1);
+            Arrays.fill(durations, -1);
+            for (Event event : events) {
+                if (event.getType() == EventType.DISPATCHED) {
+                    dispatched[event.getId()] = event.getTime();
+                } else if (event.getType() == EventType.CALLED_BACK && dispatched[event.getId()] != -1) {
+                    durations[event.getId()] = event.getTime() - dispatched[event.getId()];
+                }
+            }
+            return durations;
+        }
+    }
+
+    /**
+     * A recorded event
+     */
+    public static final class Event {
+        private final EventType type;
+        private final int id;
+        private final long time;
+
+        Event(EventType type, int id, long time) {
+            this.type = type;
+            this.id = id;
+            this.time = time;
+        }
+
+        public EventType getType() {
+            return type;
+        }
+
+        /**
+         * @return id of the task in the {@link TaskGraph} of the configuration
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return nanoseconds since the start of the run
+         */
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + id + " @" + time;
+        }
+    }
+}
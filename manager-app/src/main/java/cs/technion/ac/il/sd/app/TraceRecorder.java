@@ -0,0 +1,120 @@
+package cs.technion.ac.il.sd.app;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * TraceRecorder - a {@link SchedulerListener} appending every scheduling event, with its {@link System#nanoTime()}
+ * timestamp, to a compact binary log in the format read by {@link Trace}.
+ * <br> Recording is opt-in: bind a recorder in place of {@link SchedulerListener#NONE}, for instance
+ * {@code bind(SchedulerListener.class).toInstance(TraceRecorder.open(file))}, and close it when done. Callbacks of
+ * the last tasks of a run may fire after {@link ManagerAppImpl#processFile} returns, so the recorder keeps
+ * recording them until it is closed.
+ */
+public class TraceRecorder implements SchedulerListener, Closeable {
+
+    private final DataOutputStream out;
+    /**
+     * Number of runs started, guarded by out so that runs are numbered in the order their START records are written
+     */
+    private int runs;
+
+    public TraceRecorder(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.writeInt(Trace.MAGIC);
+        this.out.writeInt(Trace.VERSION);
+    }
+
+    /**
+     * Creates a recorder writing to a file, replacing its content
+     */
+    public static TraceRecorder open(File file) throws IOException {
+        return new TraceRecorder(new FileOutputStream(file));
+    }
+
+    @Override
+    public Run start(TaskGraph graph, long cpus, long memory, long disks) {
+        int run;
+        long time = System.nanoTime();
+        synchronized (out) {
+            run = runs++;
+            try {
+                out.writeByte(Trace.EventType.START.ordinal());
+                out.writeInt(run);
+                out.writeInt(graph.size());
+                out.writeLong(cpus);
+                out.writeLong(memory);
+                out.writeLong(disks);
+                out.writeLong(time);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new Run() {
+            @Override
+            public void ready(int id) {
+                record(Trace.EventType.READY, run, id);
+            }
+
+            @Override
+            public void dispatched(int id) {
+                record(Trace.EventType.DISPATCHED, run, id);
+            }
+
+            @Override
+            public void calledBack(int id) {
+                record(Trace.EventType.CALLED_BACK, run, id);
+            }
+
+            @Override
+            public void completed(int id) {
+                record(Trace.EventType.COMPLETED, run, id);
+            }
+
+            @Override
+            public void finished() {
+                flush();
+            }
+        };
+    }
+
+    private void record(Trace.EventType type, int run, int id) {
+        long time = System.nanoTime();
+        synchronized (out) {
+            try {
+                out.writeByte(type.ordinal());
+                out.writeInt(run);
+                out.writeInt(id);
+                out.writeLong(time);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered events to the underlying stream
+     */
+    public void flush() {
+        synchronized (out) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (out) {
+            out.close();
+        }
+    }
+}
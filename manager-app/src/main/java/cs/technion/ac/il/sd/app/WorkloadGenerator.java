@@ -0,0 +1,294 @@
+package cs.technion.ac.il.sd.app;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * WorkloadGenerator - writes synthetic configuration files in the text format of {@link Configuration}, for
+ * benchmarks and stress tests at production scale.
+ * <br> The output is fully determined by the parameters, including the seed, so a workload can be reproduced
+ * from them. Tasks are named {@code t0, t1, ...} and depend only on tasks with smaller numbers, so the
+ * configuration never has a circular dependency, and every demand is capped by the resources of the header.
+ *
+ * <br> <br> For instance, 100k tasks in layers of 300 with a few high priority tasks:
+ * <br> {@code WorkloadGenerator.builder(100000).seed(7).shape(Shape.LAYERED).width(300)
+ * .priorities(Distribution.skewed(0, 99, 3)).build().write(file)}
+ */
+public class WorkloadGenerator {
+
+    /**
+     * Shape of the dependency graph
+     */
+    public enum Shape {
+        /**
+         * {@code width} independent chains, task i depending on task {@code i - width}
+         */
+        CHAINS,
+        /**
+         * a tree where every task has up to {@code width} dependents, task i depending on task
+         * {@code (i - 1) / width}
+         */
+        FAN_OUT,
+        /**
+         * the mirror of {@link #FAN_OUT}: a tree where every task depends on up to {@code width} tasks,
+         * all ending in the last task
+         */
+        FAN_IN,
+        /**
+         * layers of {@code width} tasks, every task depending on up to {@code degree} random tasks of the
+         * previous layer
+         */
+        LAYERED,
+        /**
+         * every task depending on up to {@code degree} random earlier tasks
+         */
+        RANDOM
+    }
+
+    /**
+     * Distribution of a resource demand or of a priority
+     */
+    public interface Distribution {
+
+        int sample(Random random);
+
+        static Distribution constant(int value) {
+            return random -> value;
+        }
+
+        /**
+         * @return values uniformly distributed in {@code [min, max]}
+         */
+        static Distribution uniform(int min, int max) {
+            return random -> min + random.nextInt(max - min + 1);
+        }
+
+        /**
+         * @param skew 0 for a uniform distribution, the larger the more values are close to min
+         * @return values in {@code [min, max]}, skewed toward min
+         */
+        static Distribution skewed(int min, int max, double skew) {
+            return random -> min + (int) ((max - min + 1) * Math.pow(random.nextDouble(), 1 + skew));
+        }
+    }
+
+    private final int tasks;
+    private final long seed;
+    private final Shape shape;
+    private final int width;
+    private final int degree;
+    private final int cpus;
+    private final int memory;
+    private final int disks;
+    private final Distribution cpu;
+    private final Distribution memoryDemand;
+    private final Distribution disksDemand;
+    private final Distribution priority;
+
+    private WorkloadGenerator(Builder builder) {
+        this.tasks = builder.tasks;
+        this.seed = builder.seed;
+        this.shape = builder.shape;
+        this.width = builder.width;
+        this.degree = builder.degree;
+        this.cpus = builder.cpus;
+        this.memory = builder.memory;
+        this.disks = builder.disks;
+        this.cpu = builder.cpu;
+        this.memoryDemand = builder.memoryDemand;
+        this.disksDemand = builder.disksDemand;
+        this.priority = builder.priority;
+    }
+
+    /**
+     * Creates a builder of a generator of the specified number of tasks. By default tasks have random
+     * dependencies ({@link Shape#RANDOM}, degree 3), resources are 64 cpus, 65536 memory and 1024 disks, demands
+     * are uniform up to an eighth of them and priorities are uniform in {@code [0, 99]}.
+     *
+     * @throws IllegalArgumentException if tasks is negative
+     */
+    public static Builder builder(int tasks) {
+        return new Builder(tasks);
+    }
+
+    /**
+     * Writes the configuration to a file, replacing its content
+     */
+    public void write(File file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            write(writer);
+        }
+    }
+
+    /**
+     * Writes the configuration to a writer
+     */
+    public void write(Writer writer) throws IOException {
+        Random random = new Random(seed);
+        writer.write(cpus + ", " + memory + ", " + disks + "\n");
+        StringBuilder line = new StringBuilder();
+        int[] dependencies = new int[Math.max(width, degree)];
+        for (int i = 0; i < tasks; i++) {
+            int count = dependencies(i, random, dependencies);
+            line.setLength(0);
+            line.append('t').append(i);
+            for (int d = 0; d < count; d++) {
+                line.append(d == 0 ? "(" : ", ").append('t').append(dependencies[d]);
+            }
+            line.append(count > 0 ? ") : " : " : ")
+                    .append(Math.min(cpu.sample(random), cpus)).append(", ")
+                    .append(Math.min(memoryDemand.sample(random), memory)).append(", ")
+                    .append(Math.min(disksDemand.sample(random), disks)).append(", ")
+                    .append(priority.sample(random)).append('\n');
+            writer.append(line);
+        }
+    }
+
+    /**
+     * Fills the dependencies of task i
+     *
+     * @return number of dependencies
+     */
+    private int dependencies(int i, Random random, int[] dependencies) {
+        switch (shape) {
+            case CHAINS:
+                if (i < width) {
+                    return 0;
+                }
+                dependencies[0] = i - width;
+                return 1;
+            case FAN_OUT:
+                if (i == 0) {
+                    return 0;
+                }
+                dependencies[0] = (i - 1) / width;
+                return 1;
+            case FAN_IN:
+                long first = (long) (tasks - 1 - i) * width + 1;
+                int count = (int) Math.max(0, Math.min(width, tasks - first));
+                for (int d = 0; d < count; d++) {
+                    dependencies[d] = (int) (tasks - 1 - (first + d));
+                }
+                return count;
+            case LAYERED:
+                int layer = i / width;
+                return layer == 0 ? 0 : distinct((layer - 1) * width, width, random, dependencies);
+            default:
+                return i == 0 ? 0 : distinct(0, i, random, dependencies);
+        }
+    }
+
+    /**
+     * Picks up to {@code degree} distinct random tasks of {@code [from, from + range)}, in ascending order
+     */
+    private int distinct(int from, int range, Random random, int[] dependencies) {
+        int wanted = 1 + random.nextInt(Math.min(degree, range));
+        int count = 0;
+        while (count < wanted) {
+            int candidate = from + random.nextInt(range);
+            boolean found = false;
+            for (int d = 0; d < count && !found; d++) {
+                found = dependencies[d] == candidate;
+            }
+            if (!found) {
+                dependencies[count++] = candidate;
+            }
+        }
+        Arrays.sort(dependencies, 0, count);
+        return count;
+    }
+
+    /**
+     * Parameters of a {@link WorkloadGenerator}
+     */
+    public static final class Builder {
+        private final int tasks;
+        private long seed;
+        private Shape shape = Shape.RANDOM;
+        private int width = 16;
+        private int degree = 3;
+        private int cpus = 64;
+        private int memory = 65536;
+        private int disks = 1024;
+        private Distribution cpu = Distribution.uniform(0, 8);
+        private Distribution memoryDemand = Distribution.uniform(0, 8192);
+        private Distribution disksDemand = Distribution.uniform(0, 128);
+        private Distribution priority = Distribution.uniform(0, 99);
+
+        private Builder(int tasks) {
+            if (tasks < 0) {
+                throw new IllegalArgumentException("negative task count: " + tasks);
+            }
+            this.tasks = tasks;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder shape(Shape shape) {
+            this.shape = shape;
+            return this;
+        }
+
+        /**
+         * @param width number of chains, fan-out or fan-in of a tree, or size of a layer, depending on the shape
+         * @throws IllegalArgumentException if width is not positive
+         */
+        public Builder width(int width) {
+            if (width < 1) {
+                throw new IllegalArgumentException("width must be positive: " + width);
+            }
+            this.width = width;
+            return this;
+        }
+
+        /**
+         * @param degree maximal number of dependencies of a task in the layered and random shapes
+         * @throws IllegalArgumentException if degree is not positive
+         */
+        public Builder degree(int degree) {
+            if (degree < 1) {
+                throw new IllegalArgumentException("degree must be positive: " + degree);
+            }
+            this.degree = degree;
+            return this;
+        }
+
+        /**
+         * Sets the resources of the header
+         */
+        public Builder resources(int cpus, int memory, int disks) {
+            this.cpus = cpus;
+            this.memory = memory;
+            this.disks = disks;
+            return this;
+        }
+
+        /**
+         * Sets the distributions of the demands of every task, capped by the resources
+         */
+        public Builder demands(Distribution cpu, Distribution memory, Distribution disks) {
+            this.cpu = cpu;
+            this.memoryDemand = memory;
+            this.disksDemand = disks;
+            return this;
+        }
+
+        public Builder priorities(Distribution priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public WorkloadGenerator build() {
+            return new WorkloadGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.util.Modules;
+import cs.technion.ac.il.sd.ExternalManager;
+import cs.technion.ac.il.sd.ManagerFactory;
+import cs.technion.ac.il.sd.app.AsyncManagerApp;
+import cs.technion.ac.il.sd.app.CompletionReport;
+import cs.technion.ac.il.sd.app.ManagerModule;
+import cs.technion.ac.il.sd.app.WorkloadGenerator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link AsyncManagerApp}, with managers calling back either synchronously or from a small thread pool
+ */
+public class AsyncManagerAppTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ScheduledExecutorService workers = Executors.newScheduledThreadPool(2);
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private final ExternalManager delayed = new ExternalManager() {
+        @Override
+        public void run(String name, int cpus, int memory, int disk, Runnable callback) {
+            workers.schedule(callback, 1, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void fail() {
+            failed.incrementAndGet();
+        }
+    };
+
+    private final ExternalManager synchronous = new ExternalManager() {
+        @Override
+        public void run(String name, int cpus, int memory, int disk, Runnable callback) {
+            callback.run();
+        }
+
+        @Override
+        public void fail() {
+            failed.incrementAndGet();
+        }
+    };
+
+    private AsyncManagerApp app(ExternalManager manager) {
+        return Guice.createInjector(Modules.override(new ManagerModule()).with(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(ManagerFactory.class).toInstance((a, b, c) -> manager);
+            }
+        })).getInstance(AsyncManagerApp.class);
+    }
+
+    private File file(String name) {
+        return new File(getClass().getResource(name + ".txt").getFile());
+    }
+
+    private static List<String> names(CompletionReport report) {
+        return report.getCompletions().stream().map(CompletionReport.TaskCompletion::getTask)
+                .collect(Collectors.toList());
+    }
+
+    @After
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void reportsEveryTaskAfterItsDependencies() {
+        CompletionReport report = app(delayed).processFileAsync(file("chains")).join();
+        Assert.assertFalse(report.isRejected());
+        List<String> names = names(report);
+        Assert.assertEquals(16, names.size());
+        for (int i = 5; i <= 16; i++) {
+            Assert.assertTrue(names.indexOf(String.valueOf(i - 4)) < names.indexOf(String.valueOf(i)));
+        }
+        report.getCompletions().forEach(completion ->
+                Assert.assertTrue(completion.getLaunchTime() <= completion.getCompletionTime()));
+    }
+
+    @Test
+    public void synchronousCallbacksDontRecurse() throws IOException {
+        File chain = folder.newFile();
+        WorkloadGenerator.builder(100000).shape(WorkloadGenerator.Shape.CHAINS).width(1).build().write(chain);
+        CompletionReport report = app(synchronous).processFileAsync(chain).join();
+        Assert.assertEquals(100000, report.getCompletions().size());
+    }
+
+    @Test
+    public void rejectedConfigurationIsFailed() {
+        CompletionReport report = app(delayed).processFileAsync(file("circular")).join();
+        Assert.assertTrue(report.isRejected());
+        Assert.assertTrue(report.getRejection().isPresent());
+        Assert.assertEquals(1, failed.get());
+    }
+
+    @Test
+    public void manyConfigurationsInFlightOnFewThreads() {
+        AsyncManagerApp app = app(delayed);
+        List<CompletableFuture<CompletionReport>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(app.processFileAsync(file("batch")));
+        }
+        results.forEach(result -> Assert.assertEquals(4, result.join().getCompletions().size()));
+    }
+}
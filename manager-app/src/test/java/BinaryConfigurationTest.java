@@ -0,0 +1,96 @@
+import cs.technion.ac.il.sd.app.BinaryConfiguration;
+import cs.technion.ac.il.sd.app.Configuration;
+import cs.technion.ac.il.sd.app.Task;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link BinaryConfiguration}
+ */
+public class BinaryConfigurationTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File resource(String name) {
+        return new File(getClass().getResource(name + ".txt").getFile());
+    }
+
+    @Test
+    public void convertedFilesLoadTheSame() throws IOException {
+        for (String name : new String[]{"chains", "circular", "complex", "empty", "greedy", "insufficientResources",
+                "large", "largeCapacities", "onebyone", "priodep", "small"}) {
+            File binary = folder.newFile();
+            BinaryConfiguration.convert(resource(name), binary);
+            Configuration text = Configuration.fromFile(resource(name));
+            Configuration loaded = BinaryConfiguration.load(binary);
+            Assert.assertEquals(ConfigurationParserTest.describe(text), ConfigurationParserTest.describe(loaded));
+            Assert.assertEquals(text.getTasks().stream().map(Task::getName).collect(Collectors.toList()),
+                    loaded.getTasks().stream().map(Task::getName).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void namedResourcesAreKept() throws IOException {
+        File binary = folder.newFile();
+        BinaryConfiguration.convert(resource("named"), binary);
+        Configuration loaded = BinaryConfiguration.load(binary);
+        Assert.assertEquals(ConfigurationParserTest.describe(Configuration.fromFile(resource("named"))),
+                ConfigurationParserTest.describe(loaded));
+        Assert.assertEquals(Arrays.asList("gpu", "license"), loaded.getResourceNames());
+        Assert.assertEquals(2, loaded.getNamedCapacity(0));
+        Assert.assertEquals(1, loaded.getTask("b").get().getNamedDemand(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void textFileIsRejected() {
+        BinaryConfiguration.load(resource("complex"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyFileIsRejected() throws IOException {
+        File binary = folder.newFile();
+        Files.write(binary.toPath(), new byte[0]);
+        BinaryConfiguration.load(binary);
+    }
+
+    @Test
+    public void truncatedFileIsRejected() throws IOException {
+        File binary = folder.newFile();
+        BinaryConfiguration.convert(resource("named"), binary);
+        byte[] bytes = Files.readAllBytes(binary.toPath());
+        for (int length = 24; length < bytes.length; length++) {
+            Files.write(binary.toPath(), Arrays.copyOf(bytes, length));
+            try {
+                BinaryConfiguration.load(binary);
+                Assert.fail("loaded a file truncated to " + length + " of " + bytes.length + " bytes");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeNameLengthIsRejected() throws IOException {
+        File binary = folder.newFile();
+        BinaryConfiguration.convert(resource("small"), binary);
+        byte[] bytes = Files.readAllBytes(binary.toPath());
+        // the length of the first task name follows the header, the named resource count and the task count
+        ByteBuffer.wrap(bytes).putInt(40, -1);
+        Files.write(binary.toPath(), bytes);
+        BinaryConfiguration.load(binary);
+    }
+}
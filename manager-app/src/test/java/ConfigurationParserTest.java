@@ -0,0 +1,169 @@
+import cs.technion.ac.il.sd.app.Configuration;
+import cs.technion.ac.il.sd.app.RegexConfigurationParser;
+import cs.technion.ac.il.sd.app.Task;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Tests that {@link Configuration#fromFile(File)} is compatible with the original regex based parser,
+ * {@link RegexConfigurationParser}
+ */
+public class ConfigurationParserTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File resource(String name) {
+        return new File(getClass().getResource(name + ".txt").getFile());
+    }
+
+    private File write(String content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Describes a configuration as text, ignoring the order of tasks and dependencies
+     */
+    static String describe(Configuration configuration) {
+        Map<String, String> tasks = new TreeMap<>();
+        for (Task t : configuration.getTasks()) {
+            tasks.put(t.getName(), t + " <- " + configuration.getDependenciesOf(t).stream()
+                    .map(Task::getName)
+                    .sorted()
+                    .collect(Collectors.toList()));
+        }
+        return configuration.getCpus() + ", " + configuration.getMemory() + ", " + configuration.getDisks() + tasks;
+    }
+
+    private void assertCompatible(File file) {
+        String expected = describe(RegexConfigurationParser.parse(file));
+        Assert.assertEquals(expected, describe(Configuration.fromFile(file)));
+        Assert.assertEquals(expected, describe(Configuration.fromFileParallel(file)));
+    }
+
+    @Test
+    public void namedResourcesAreDeclaredAndDemanded() throws IOException {
+        File file = write("4, 4, 4, gpu=2, license=10000000000\nt(u) : 1, 1, 1, 0, license=3, gpu=1\nu : 1, 1, 1, 0\n");
+        for (Configuration configuration : new Configuration[]{
+                Configuration.fromFile(file), Configuration.fromFileParallel(file)}) {
+            Assert.assertEquals(Arrays.asList("gpu", "license"), configuration.getResourceNames());
+            Assert.assertEquals(10000000000L, configuration.getNamedCapacity(1));
+            Task t = configuration.getTask("t").get();
+            Assert.assertEquals(1, t.getNamedDemand(0));
+            Assert.assertEquals(3, t.getNamedDemand(1));
+            Assert.assertEquals(0, configuration.getTask("u").get().getNamedDemand(0));
+            Assert.assertEquals("u", configuration.getDependenciesOf("t").iterator().next().getName());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void undeclaredResourceIsRejected() throws IOException {
+        Configuration.fromFile(write("4, 4, 4, gpu=2\nt : 1, 1, 1, 0, fpga=1\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void resourceDeclaredTwiceIsRejected() throws IOException {
+        Configuration.fromFile(write("4, 4, 4, gpu=2, gpu=3\n"));
+    }
+
+    @Test
+    public void resourceFilesAreParsedTheSame() {
+        for (String name : new String[]{"chains", "circular", "complex", "empty", "greedy", "insufficientResources",
+                "large", "onebyone", "priodep", "small"}) {
+            assertCompatible(resource(name));
+        }
+    }
+
+    @Test
+    public void separatorsAndBlanksAreParsedTheSame() throws IOException {
+        assertCompatible(write("3, 4, 5\r\n"
+                + "  main( a,b ,c ):1,2,3,4  \r\n"
+                + "\t\r\n"
+                + "a\t(c):\t-1 ,+2, 3,4\r\n"
+                + "b():0,0,0,0\n"
+                + "c : 5, 6, 7, 8"));
+    }
+
+    @Test
+    public void redefinitionsAreParsedTheSame() throws IOException {
+        assertCompatible(write("1, 1, 1\n"
+                + "a(b, b): 1, 1, 1, 1\n"
+                + "b: 2, 2, 2, 2\n"
+                + "a: 3, 3, 3, 3\n"
+                + "c(b): 4, 4, 4, 4\n"));
+    }
+
+    @Test
+    public void longLinesAreParsedTheSame() throws IOException {
+        StringBuilder content = new StringBuilder("10, 10, 10\nmain(");
+        for (int i = 0; i < 20000; i++) {
+            content.append("dependency").append(i).append(", ");
+        }
+        content.append("last): 1, 1, 1, 1\n");
+        assertCompatible(write(content.toString()));
+    }
+
+    @Test
+    public void parallelPreservesOrderAcrossChunks() throws IOException {
+        StringBuilder content = new StringBuilder("10, 10, 10\n");
+        for (int i = 0; i < 150000; i++) {
+            content.append("task").append(i % 50000).append("(task").append((i + 1) % 50000).append(")")
+                    .append(" : ").append(i % 7).append(", 1, 1, ").append(i).append('\n');
+        }
+        File file = write(content.toString());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Assert.assertEquals(describe(Configuration.fromFile(file)),
+                    describe(Configuration.fromFileParallel(file, pool)));
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(
+                Configuration.fromFile(file).getTasks().stream().map(Task::getName).collect(Collectors.toList()),
+                Configuration.fromFileParallel(file).getTasks().stream().map(Task::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void namesAreInterned() throws IOException {
+        Configuration configuration = Configuration.fromFile(write("1, 1, 1\na(b): 1, 1, 1, 1\nc(b): 1, 1, 1, 1\n"));
+        Assert.assertSame(configuration.getDependenciesOf("a").iterator().next().getName(),
+                configuration.getDependenciesOf("c").iterator().next().getName());
+    }
+
+    @Test
+    public void resourcesBeyondIntAreParsed() throws IOException {
+        File file = write("4294967296, 8589934592, 3000000000\na: 1, 4294967296, 2147483648, 1\n");
+        assertCompatible(file);
+        Configuration configuration = Configuration.fromFile(file);
+        Assert.assertEquals(8589934592L, configuration.getMemory());
+        Assert.assertEquals(2147483648L, configuration.getTask("a").get().getDisks());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void overflowingResourceThrows() throws IOException {
+        Configuration.fromFile(write("1, 1, 1\na: 1, 1, 9223372036854775808, 1\n"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void overflowingPriorityThrows() throws IOException {
+        Configuration.fromFile(write("1, 1, 1\na: 1, 1, 1, 2147483648\n"));
+    }
+}
@@ -231,5 +231,13 @@ public class ConfigurationTest {
         Assert.assertEquals(2048, $.getDisks());
     }
 
-
+    @Test
+    public void equalTasksHaveEqualHashCodes() {
+        Task task = new Task(new String("a"), 1, 2, 3, 4);
+        Task same = new Task(new String("a"), 1, 2, 3, 4);
+        Assert.assertEquals(task, same);
+        Assert.assertEquals(task.hashCode(), same.hashCode());
+        Assert.assertNotEquals(task, new Task("a", 1, 2, 3, 5));
+        Assert.assertTrue(Collections.singleton(task).contains(same));
+    }
 }
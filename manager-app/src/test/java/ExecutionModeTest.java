@@ -0,0 +1,76 @@
+import cs.technion.ac.il.sd.ExternalManager;
+import cs.technion.ac.il.sd.app.ExecutionMode;
+import cs.technion.ac.il.sd.app.ManagerAppImpl;
+import cs.technion.ac.il.sd.app.PriorityPolicy;
+import cs.technion.ac.il.sd.app.SchedulerListener;
+import cs.technion.ac.il.sd.app.WorkloadGenerator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link ExecutionMode}s of {@link ManagerAppImpl}, with callbacks delivered from a thread pool
+ */
+public class ExecutionModeTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(8);
+    private final AtomicInteger launched = new AtomicInteger();
+
+    private final ExternalManager pooled = new ExternalManager() {
+        @Override
+        public void run(String name, int cpus, int memory, int disk, Runnable callback) {
+            launched.incrementAndGet();
+            workers.execute(callback);
+        }
+
+        @Override
+        public void fail() {
+        }
+    };
+
+    @After
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    private void processWorkload(ExecutionMode mode) throws IOException {
+        File file = folder.newFile();
+        WorkloadGenerator.builder(20000).seed(3).shape(WorkloadGenerator.Shape.LAYERED).width(500)
+                .resources(64, 64, 64).build().write(file);
+        new ManagerAppImpl((c, m, d) -> pooled, new PriorityPolicy(), SchedulerListener.NONE, mode).processFile(file);
+        Assert.assertEquals(20000, launched.get());
+    }
+
+    @Test
+    public void platformModeHandsOffConcurrentCallbacks() throws IOException {
+        processWorkload(ExecutionMode.PLATFORM);
+    }
+
+    @Test
+    public void virtualModeRunsEveryTask() throws IOException {
+        Assume.assumeTrue(ExecutionMode.VIRTUAL.isSupported());
+        processWorkload(ExecutionMode.VIRTUAL);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void virtualModeIsRejectedWithoutVirtualThreads() {
+        Assume.assumeFalse(ExecutionMode.VIRTUAL.isSupported());
+        new ManagerAppImpl((c, m, d) -> pooled, new PriorityPolicy(), SchedulerListener.NONE, ExecutionMode.VIRTUAL);
+    }
+}
@@ -0,0 +1,69 @@
+import cs.technion.ac.il.sd.app.Histogram;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link Histogram}
+ */
+public class HistogramTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    @Test
+    public void emptyHistogramIsZero() {
+        Histogram histogram = new Histogram();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getValueAtPercentile(99));
+        Assert.assertEquals(0, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int v = 1; v <= 10; v++) {
+            histogram.record(v);
+        }
+        Assert.assertEquals(5, histogram.getValueAtPercentile(50));
+        Assert.assertEquals(9, histogram.getValueAtPercentile(90));
+        Assert.assertEquals(10, histogram.getValueAtPercentile(100));
+        Assert.assertEquals(5.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    public void largeValuesAreWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (long v = 1000; v <= 1_000_000; v += 1000) {
+            histogram.record(v);
+        }
+        long median = histogram.getValueAtPercentile(50);
+        Assert.assertTrue(median <= 500_000 && median > 500_000 * 0.875);
+        Assert.assertEquals(1_000_000, histogram.getMax());
+        Assert.assertTrue(histogram.getValueAtPercentile(100) <= 1_000_000);
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(400_000, histogram.getCount());
+        Assert.assertEquals(99_999, histogram.getMax());
+    }
+}
@@ -6,6 +6,8 @@ import cs.technion.ac.il.sd.ManagerFactory;
 import cs.technion.ac.il.sd.app.ManagerApp;
 import cs.technion.ac.il.sd.app.ManagerAppImpl;
 import cs.technion.ac.il.sd.app.ManagerModule;
+import cs.technion.ac.il.sd.app.PriorityPolicy;
+import cs.technion.ac.il.sd.app.SchedulerListener;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
@@ -141,6 +143,27 @@ public class ManagerAppTest {
         verify(mock).fail();
     }
 
+    @Test
+    public void capacitiesBeyondIntAreSaturated() {
+        ManagerFactory factory = Mockito.mock(ManagerFactory.class);
+        when(factory.create(anyInt(), anyInt(), anyInt())).thenReturn(mock);
+        new ManagerAppImpl(factory, new PriorityPolicy(), SchedulerListener.NONE)
+                .processFile(new File(getClass().getResource("largeCapacities.txt").getFile()));
+        verify(factory).create(2, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        InOrder order = inOrder(mock);
+        order.verify(mock).run(eq("a"), eq(1), eq(Integer.MAX_VALUE), eq(Integer.MAX_VALUE), anyObject());
+        order.verify(mock).run(eq("b"), eq(1), eq(Integer.MAX_VALUE), eq(Integer.MAX_VALUE), anyObject());
+        order.verify(mock).run(eq("c"), eq(2), eq(1), eq(1), anyObject());
+        verify(mock, never()).fail();
+    }
+
+    @Test
+    public void demandBeyondIntFails() {
+        processFile("intOverflowingTask");
+        verify(mock).fail();
+        verify(mock, never()).run(anyString(), anyInt(), anyInt(), anyInt(), any());
+    }
+
     @Test
     public void largeIsCorrect() throws InterruptedException
     {
@@ -168,6 +191,32 @@ public class ManagerAppTest {
         order.verifyNoMoreInteractions();
     }
 
+    @Test
+    public void batchedCallbacksAreDispatchedByPriority() {
+        ExternalManager synchronous = spy(new ExternalManager() {
+            @Override
+            public void run(String name, int cpus, int memory, int disk, Runnable callback) {
+                callback.run();
+            }
+
+            @Override
+            public void fail() {
+            }
+        });
+        Guice.createInjector(new ManagerModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(ManagerFactory.class).toInstance((a, b, c) -> synchronous);
+            }
+        }).getInstance(ManagerApp.class).processFile(new File(getClass().getResource("batch.txt").getFile()));
+        InOrder order = inOrder(synchronous);
+        order.verify(synchronous).run(eq("a"), eq(1), eq(1), eq(1), anyObject());
+        order.verify(synchronous).run(eq("b"), eq(1), eq(1), eq(1), anyObject());
+        order.verify(synchronous).run(eq("d"), eq(2), eq(1), eq(1), anyObject());
+        order.verify(synchronous).run(eq("c"), eq(2), eq(1), eq(1), anyObject());
+        order.verifyNoMoreInteractions();
+    }
+
     @Test
     public void chainsIsCorrect() throws InterruptedException
     {
@@ -0,0 +1,110 @@
+import cs.technion.ac.il.sd.ExternalManager;
+import cs.technion.ac.il.sd.ManagerFactory;
+import cs.technion.ac.il.sd.app.ManagerService;
+import cs.technion.ac.il.sd.app.PriorityPolicy;
+import cs.technion.ac.il.sd.app.SchedulerListener;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link ManagerService}, whose managers call back asynchronously after a short delay
+ */
+public class ManagerServiceTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    private final ScheduledExecutorService workers = Executors.newScheduledThreadPool(4);
+    private final AtomicInteger usedCpus = new AtomicInteger();
+    private final AtomicInteger maxUsedCpus = new AtomicInteger();
+    private final AtomicInteger launched = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private final ExternalManager delayed = new ExternalManager() {
+        @Override
+        public void run(String name, int cpus, int memory, int disk, Runnable callback) {
+            launched.incrementAndGet();
+            maxUsedCpus.accumulateAndGet(usedCpus.addAndGet(cpus), Math::max);
+            workers.schedule(() -> {
+                usedCpus.addAndGet(-cpus);
+                callback.run();
+            }, 2, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void fail() {
+            failed.incrementAndGet();
+        }
+    };
+
+    private final ManagerFactory factory = (cpus, memory, disks) -> delayed;
+
+    private ManagerService service;
+
+    private File file(String name) {
+        return new File(getClass().getResource(name + ".txt").getFile());
+    }
+
+    @After
+    public void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void concurrentSubmissionsShareTheGlobalPool() {
+        service = new ManagerService(factory, new PriorityPolicy(), SchedulerListener.NONE, 6, 100, 100, 2);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(service.submit(file("chains")));
+        }
+        results.forEach(result -> Assert.assertTrue(result.join()));
+        Assert.assertEquals(8 * 16, launched.get());
+        Assert.assertTrue(maxUsedCpus.get() <= 6);
+        Assert.assertEquals(0, failed.get());
+    }
+
+    @Test
+    public void namedResourcesAreSharedAcrossSubmissions() {
+        service = new ManagerService(factory, new PriorityPolicy(), SchedulerListener.NONE, 100, 100, 100, 2);
+        CompletableFuture<Boolean> first = service.submit(file("licensed"));
+        CompletableFuture<Boolean> second = service.submit(file("licensed"));
+        Assert.assertTrue(first.join());
+        Assert.assertTrue(second.join());
+        Assert.assertEquals(8, launched.get());
+        // every task takes one cpu and the single license, so no two of them ever ran together
+        Assert.assertEquals(1, maxUsedCpus.get());
+    }
+
+    @Test
+    public void invalidSubmissionFailsAlone() {
+        service = new ManagerService(factory, new PriorityPolicy(), SchedulerListener.NONE, 4, 100, 100, 1);
+        CompletableFuture<Boolean> circular = service.submit(file("circular"));
+        CompletableFuture<Boolean> batch = service.submit(file("batch"));
+        Assert.assertFalse(circular.join());
+        Assert.assertTrue(batch.join());
+        Assert.assertEquals(1, failed.get());
+        Assert.assertEquals(4, launched.get());
+    }
+
+    @Test
+    public void taskLargerThanGlobalPoolFails() {
+        service = new ManagerService(factory, new PriorityPolicy(), SchedulerListener.NONE, 1, 100, 100, 1);
+        Assert.assertFalse(service.submit(file("batch")).join());
+        Assert.assertEquals(0, launched.get());
+    }
+}
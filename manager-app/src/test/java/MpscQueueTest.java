@@ -0,0 +1,81 @@
+import cs.technion.ac.il.sd.app.MpscQueue;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link MpscQueue}
+ */
+public class MpscQueueTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    @Test
+    public void drainsInOrderUpToLimit() {
+        MpscQueue<Integer> queue = new MpscQueue<>();
+        for (int i = 0; i < 5; i++) {
+            queue.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(3, queue.drain(drained::add, 3));
+        Assert.assertEquals(Integer.valueOf(3), queue.poll());
+        Assert.assertEquals(1, queue.drain(drained::add));
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 4), drained);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void timedPollReturnsNullWhenEmpty() throws InterruptedException {
+        Assert.assertNull(new MpscQueue<Integer>().poll(5, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void boundedQueueRejectsWhenFull() {
+        MpscQueue<String> queue = new MpscQueue<>(2);
+        Assert.assertTrue(queue.offer("a"));
+        Assert.assertTrue(queue.offer("b"));
+        Assert.assertFalse(queue.offer("c"));
+        Assert.assertEquals("a", queue.poll());
+        Assert.assertTrue(queue.offer("c"));
+    }
+
+    @Test
+    public void consumerParksUntilProducersOffer() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 100000;
+        MpscQueue<Integer> queue = new MpscQueue<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(producer * perProducer + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        int[] last = new int[producers];
+        Arrays.fill(last, -1);
+        int received = 0;
+        while (received < producers * perProducer) {
+            received += queue.awaitDrain(value -> {
+                int producer = value / perProducer;
+                Assert.assertTrue(value % perProducer > last[producer]);
+                last[producer] = value % perProducer;
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,94 @@
+import cs.technion.ac.il.sd.app.Configuration;
+import cs.technion.ac.il.sd.app.ReadyQueue;
+import cs.technion.ac.il.sd.app.Task;
+import cs.technion.ac.il.sd.app.TaskGraph;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Tests for {@link ReadyQueue}, against a brute force scan of the ready tasks in dispatch order
+ */
+public class ReadyQueueTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TaskGraph graph(int tasks, Random random) throws IOException {
+        StringBuilder content = new StringBuilder("10, 10, 10\n");
+        for (int i = 0; i < tasks; i++) {
+            content.append(i).append(" : ").append(random.nextInt(11)).append(", ").append(random.nextInt(11))
+                    .append(", ").append(random.nextInt(11)).append(", 0\n");
+        }
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        return TaskGraph.of(Configuration.fromFile(file));
+    }
+
+    private static int[] reversed(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = size - 1 - i;
+        }
+        return order;
+    }
+
+    private static int bruteForce(TaskGraph graph, TreeSet<Integer> ready, int cpus, int memory, int disks) {
+        for (int id : ready.descendingSet()) {
+            Task t = graph.getTask(id);
+            if (t.getCpu() <= cpus && t.getMemory() <= memory && t.getDisks() <= disks) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void emptyQueueHasNothingToPoll() throws IOException {
+        ReadyQueue queue = new ReadyQueue(graph(0, new Random(0)), new int[0]);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(-1, queue.peek());
+        Assert.assertEquals(-1, queue.poll(10, 10, 10));
+    }
+
+    @Test
+    public void pollsFirstFittingTaskInOrder() throws IOException {
+        Random random = new Random(236700);
+        TaskGraph graph = graph(300, random);
+        ReadyQueue queue = new ReadyQueue(graph, reversed(graph.size()));
+        TreeSet<Integer> ready = new TreeSet<>();
+        for (int step = 0; step < 20000; step++) {
+            int id = random.nextInt(graph.size());
+            switch (random.nextInt(3)) {
+                case 0:
+                    queue.add(id);
+                    ready.add(id);
+                    break;
+                case 1:
+                    queue.remove(id);
+                    ready.remove(id);
+                    break;
+                default:
+                    int cpus = random.nextInt(11), memory = random.nextInt(11), disks = random.nextInt(11);
+                    int expected = bruteForce(graph, ready, cpus, memory, disks);
+                    Assert.assertEquals(expected, queue.poll(cpus, memory, disks));
+                    ready.remove(expected);
+            }
+            Assert.assertEquals(ready.size(), queue.size());
+            Assert.assertEquals(ready.isEmpty() ? -1 : (int) ready.last(), queue.peek());
+            Assert.assertEquals(ready.contains(id), queue.contains(id));
+        }
+    }
+}
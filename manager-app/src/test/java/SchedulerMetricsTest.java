@@ -0,0 +1,107 @@
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.util.Modules;
+import cs.technion.ac.il.sd.ExternalManager;
+import cs.technion.ac.il.sd.ManagerFactory;
+import cs.technion.ac.il.sd.app.Configuration;
+import cs.technion.ac.il.sd.app.ManagerApp;
+import cs.technion.ac.il.sd.app.ManagerModule;
+import cs.technion.ac.il.sd.app.SchedulerListener;
+import cs.technion.ac.il.sd.app.SchedulerMetrics;
+import cs.technion.ac.il.sd.app.TaskGraph;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link SchedulerMetrics}, bound in place of the default listener
+ */
+public class SchedulerMetricsTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    private final SchedulerMetrics metrics = new SchedulerMetrics();
+
+    private final ExternalManager synchronous = new ExternalManager() {
+        @Override
+        public void run(String name, int cpus, int memory, int disk, Runnable callback) {
+            callback.run();
+        }
+
+        @Override
+        public void fail() {
+        }
+    };
+
+    private void processFile(String name) {
+        Guice.createInjector(Modules.override(new ManagerModule()).with(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(ManagerFactory.class).toInstance((a, b, c) -> synchronous);
+                bind(SchedulerListener.class).toInstance(metrics);
+            }
+        })).getInstance(ManagerApp.class).processFile(new File(getClass().getResource(name + ".txt").getFile()));
+    }
+
+    @Test
+    public void recordsEveryDispatchAndCompletion() {
+        processFile("batch");
+        SchedulerMetrics.Snapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(4, snapshot.getDispatched());
+        Assert.assertEquals(4, snapshot.getDispatchLatency().getCount());
+        Assert.assertEquals(4, snapshot.getCompleted());
+        Assert.assertEquals(4, snapshot.getCallbackLatency().getCount());
+        Assert.assertEquals(2, snapshot.getRunningSize().getMax());
+        Assert.assertEquals(0, snapshot.getReady());
+        Assert.assertTrue(snapshot.getCpuUtilization() > 0 && snapshot.getCpuUtilization() <= 1);
+    }
+
+    @Test
+    public void metricsAccumulateOverRuns() {
+        processFile("batch");
+        processFile("batch");
+        Assert.assertEquals(8, metrics.snapshot().getDispatched());
+    }
+
+    @Test
+    public void queueSizesAddUpOverInterleavedRuns() {
+        TaskGraph graph = TaskGraph.of(Configuration.fromFile(new File(getClass().getResource("batch.txt").getFile())));
+        SchedulerListener.Run first = metrics.start(graph, 4, 4, 4);
+        SchedulerListener.Run second = metrics.start(graph, 4, 4, 4);
+        first.dispatchPassDone(3, 1, 3, 3, 3);
+        second.dispatchPassDone(2, 2, 2, 2, 2);
+        Assert.assertEquals(5, metrics.snapshot().getReady());
+        Assert.assertEquals(3, metrics.snapshot().getRunning());
+        first.dispatchPassDone(1, 2, 2, 2, 2);
+        Assert.assertEquals(3, metrics.snapshot().getReady());
+        Assert.assertEquals(4, metrics.snapshot().getRunning());
+        first.finished();
+        Assert.assertEquals(2, metrics.snapshot().getReady());
+        Assert.assertEquals(2, metrics.snapshot().getRunning());
+        second.dispatchPassDone(0, 0, 4, 4, 4);
+        second.finished();
+        Assert.assertEquals(0, metrics.snapshot().getReady());
+        Assert.assertEquals(0, metrics.snapshot().getRunning());
+    }
+
+    @Test
+    public void dumpsPeriodically() throws InterruptedException {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        LinkedBlockingQueue<SchedulerMetrics.Snapshot> dumps = new LinkedBlockingQueue<>();
+        processFile("batch");
+        ScheduledFuture<?> dump = metrics.dumpPeriodically(executor, 10, TimeUnit.MILLISECONDS, dumps::add);
+        Assert.assertEquals(4, dumps.take().getDispatched());
+        Assert.assertTrue(dumps.take().toString().contains("utilization"));
+        dump.cancel(false);
+        executor.shutdown();
+    }
+}
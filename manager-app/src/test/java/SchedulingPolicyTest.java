@@ -0,0 +1,96 @@
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.util.Modules;
+import cs.technion.ac.il.sd.ExternalManager;
+import cs.technion.ac.il.sd.ManagerFactory;
+import cs.technion.ac.il.sd.app.*;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the {@link SchedulingPolicy} implementations, each bound in place of the default policy
+ */
+public class SchedulingPolicyTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    private final List<String> launched = new ArrayList<>();
+
+    private final ExternalManager synchronous = new ExternalManager() {
+        @Override
+        public void run(String name, int cpus, int memory, int disk, Runnable callback) {
+            launched.add(name);
+            callback.run();
+        }
+
+        @Override
+        public void fail() {
+        }
+    };
+
+    private List<String> processFile(String name, Class<? extends SchedulingPolicy> policy) {
+        return processFile(name, new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(SchedulingPolicy.class).to(policy);
+            }
+        });
+    }
+
+    private List<String> processFile(String name, SchedulingPolicy policy) {
+        return processFile(name, new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(SchedulingPolicy.class).toInstance(policy);
+            }
+        });
+    }
+
+    private List<String> processFile(String name, AbstractModule policy) {
+        Guice.createInjector(Modules.override(new ManagerModule()).with(Modules.override(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(ManagerFactory.class).toInstance((a, b, c) -> synchronous);
+            }
+        }).with(policy))).getInstance(ManagerApp.class)
+                .processFile(new File(getClass().getResource(name + ".txt").getFile()));
+        return launched;
+    }
+
+    @Test
+    public void priorityPolicySkipsTasksThatDontFit() {
+        Assert.assertEquals(Arrays.asList("r", "s", "h"), processFile("backfill", PriorityPolicy.class));
+    }
+
+    @Test
+    public void backfillPolicyReservesResourcesForFirstTask() {
+        // s would still be running when r completes and h could start
+        BackfillPolicy policy = new BackfillPolicy(
+                task -> task.getName().equals("s") ? 2_000_000_000L : 1_000_000_000L);
+        Assert.assertEquals(Arrays.asList("r", "h", "s"), processFile("backfill", policy));
+    }
+
+    @Test
+    public void backfillPolicyBackfillsTasksCompletingBeforeFirstTaskFits() {
+        BackfillPolicy policy = new BackfillPolicy(task -> task.getName().equals("s") ? 1 : 1_000_000_000L);
+        Assert.assertEquals(Arrays.asList("r", "s", "h"), processFile("backfill", policy));
+    }
+
+    @Test
+    public void criticalPathPolicyRunsLongestChainFirst() {
+        Assert.assertEquals(Arrays.asList("b", "c", "d", "a"), processFile("criticalPath", CriticalPathPolicy.class));
+    }
+
+    @Test
+    public void dominantResourcePolicyRunsLargestShareFirst() {
+        Assert.assertEquals(Arrays.asList("y", "x"), processFile("dominant", DominantResourcePolicy.class));
+    }
+}
@@ -0,0 +1,147 @@
+import cs.technion.ac.il.sd.app.*;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link Simulator}
+ */
+public class SimulatorTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(20);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Map<String, Long> DURATIONS = new HashMap<>();
+
+    static {
+        DURATIONS.put("a", 100L);
+        DURATIONS.put("h", 10L);
+        DURATIONS.put("s", 50L);
+        DURATIONS.put("l", 1000L);
+    }
+
+    private Configuration configuration(String name) {
+        return Configuration.fromFile(new File(getClass().getResource(name + ".txt").getFile()));
+    }
+
+    private static List<String> names(Simulator.Result result) {
+        return result.getDispatchedTasks().stream().map(Task::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    public void replaysDispatchOrderOfManager() {
+        Simulator.Result result = Simulator.simulate(configuration("batch"), new PriorityPolicy(), task -> 1);
+        Assert.assertEquals(Arrays.asList("a", "b", "d", "c"), names(result));
+        Assert.assertEquals(3, result.getMakespan());
+    }
+
+    @Test
+    public void namedResourcesLimitConcurrency() {
+        Simulator.Result result = Simulator.simulate(configuration("named"), new PriorityPolicy(), task -> 1);
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), names(result));
+        Assert.assertEquals(0, result.getStart(1));
+        Assert.assertEquals(1, result.getStart(2));
+        Assert.assertEquals(1, result.getStart(3));
+        Assert.assertEquals(2, result.getMakespan());
+    }
+
+    @Test
+    public void capacitiesBeyondIntAreAccounted() {
+        Simulator.Result result = Simulator.simulate(configuration("largeCapacities"), new PriorityPolicy(), task -> 1);
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), names(result));
+        Assert.assertEquals(0, result.getStart(1));
+        Assert.assertEquals(2, result.getMakespan());
+    }
+
+    @Test
+    public void comparesPolicies() {
+        Configuration reservation = configuration("reservation");
+        ToLongFunction<Task> duration = task -> DURATIONS.get(task.getName());
+        Simulator.Result priority = Simulator.simulate(reservation, new PriorityPolicy(), duration);
+        Simulator.Result reserving = Simulator.simulate(reservation, new BackfillPolicy(duration), duration);
+        // l takes the cpu h is waiting for until it completes
+        Assert.assertEquals(Arrays.asList("a", "s", "l", "h"), names(priority));
+        Assert.assertEquals(1000, priority.getStart(1));
+        // s completes before a, so it is backfilled, while l would delay h
+        Assert.assertEquals(Arrays.asList("a", "s", "h", "l"), names(reserving));
+        Assert.assertEquals(0, reserving.getStart(2));
+        Assert.assertEquals(100, reserving.getStart(1));
+        Assert.assertEquals(110, reserving.getStart(3));
+    }
+
+    @Test
+    public void backfillPolicyBackfillsTasksFittingBesideReservation() {
+        TaskGraph graph = TaskGraph.of(configuration("reservation"));
+        long[] durations = new long[graph.size()];
+        for (int id = 0; id < graph.size(); id++) {
+            durations[id] = DURATIONS.get(graph.getTask(id).getName());
+        }
+        // with a fifth cpu, l leaves h enough to start once a completes
+        Simulator.Result result = Simulator.simulate(graph, 5, 4, 4,
+                new BackfillPolicy(task -> DURATIONS.get(task.getName())), durations);
+        Assert.assertEquals(Arrays.asList("a", "s", "l", "h"), names(result));
+        Assert.assertEquals(0, result.getStart(3));
+        Assert.assertEquals(100, result.getStart(1));
+    }
+
+    @Test
+    public void unlimitedResourcesReachCriticalPath() throws IOException {
+        File file = folder.newFile();
+        WorkloadGenerator.builder(20000).seed(5).shape(WorkloadGenerator.Shape.LAYERED).width(100)
+                .resources(1_000_000, 1_000_000, 1_000_000).build().write(file);
+        Configuration configuration = Configuration.fromFile(file);
+        Simulator.Result result = Simulator.simulate(configuration, new PriorityPolicy(), task -> 1 + task.getCpu());
+        long criticalPath = TaskGraph.of(configuration).criticalPath(task -> 1 + task.getCpu()).get().getMakespan();
+        Assert.assertEquals(criticalPath, result.getMakespan());
+    }
+
+    @Test
+    public void tasksNeverStartBeforeDependencies() throws IOException {
+        File file = folder.newFile();
+        WorkloadGenerator.builder(2000).seed(9).resources(16, 16, 16).build().write(file);
+        Configuration configuration = Configuration.fromFile(file);
+        TaskGraph graph = TaskGraph.of(configuration);
+        Simulator.Result result = Simulator.simulate(configuration, new CriticalPathPolicy(), task -> 3);
+        for (int id = 0; id < graph.size(); id++) {
+            for (int i = 0; i < graph.getGraph().outDegreeOf(id); i++) {
+                int dependent = graph.getGraph().getSuccessor(id, i);
+                Assert.assertTrue(result.getStart(dependent) >= result.getFinish(id));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void circularConfigurationIsRejected() {
+        Simulator.simulate(configuration("circular"), new PriorityPolicy(), task -> 1);
+    }
+
+    @Test
+    public void everyCircularDependencyIsReported() throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), Arrays.asList("1, 1, 1",
+                "a(b) : 1, 1, 1, 0", "b(a) : 1, 1, 1, 0", "c(e) : 1, 1, 1, 0", "d(c) : 1, 1, 1, 0",
+                "e(d) : 1, 1, 1, 0", "f(a) : 1, 1, 1, 0"));
+        try {
+            Simulator.simulate(Configuration.fromFile(file), new PriorityPolicy(), task -> 1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().matches("circular dependency among \\{.*} and \\{.*}"));
+            Assert.assertFalse(e.getMessage().contains("f"));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.util.Modules;
+import cs.technion.ac.il.sd.ExternalManager;
+import cs.technion.ac.il.sd.ManagerFactory;
+import cs.technion.ac.il.sd.app.*;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link TraceRecorder} and {@link Trace}
+ */
+public class TraceRecorderTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordedTraceReplaysInSimulator() throws IOException, InterruptedException {
+        File log = folder.newFile();
+        File batch = new File(getClass().getResource("batch.txt").getFile());
+        CountDownLatch callbacks = new CountDownLatch(4);
+        ExternalManager delayed = new ExternalManager() {
+            @Override
+            public void run(String name, int cpus, int memory, int disk, Runnable callback) {
+                new Thread(() -> {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                    callback.run();
+                    callbacks.countDown();
+                }).start();
+            }
+
+            @Override
+            public void fail() {
+            }
+        };
+        try (TraceRecorder recorder = TraceRecorder.open(log)) {
+            Guice.createInjector(Modules.override(new ManagerModule()).with(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(ManagerFactory.class).toInstance((a, b, c) -> delayed);
+                    bind(SchedulerListener.class).toInstance(recorder);
+                }
+            })).getInstance(ManagerApp.class).processFile(batch);
+            callbacks.await();
+        }
+
+        Trace trace = Trace.read(log);
+        Assert.assertEquals(1, trace.getRuns().size());
+        Trace.Run run = trace.getRuns().get(0);
+        Assert.assertEquals(4, run.getTaskCount());
+        Assert.assertEquals(4, run.getEvents().stream()
+                .filter(e -> e.getType() == Trace.EventType.DISPATCHED).count());
+        Assert.assertEquals(Arrays.asList(0, 1, 3, 2), run.getEvents().stream()
+                .filter(e -> e.getType() == Trace.EventType.DISPATCHED)
+                .map(Trace.Event::getId)
+                .collect(Collectors.toList()));
+        long[] durations = run.getDurations();
+        for (long duration : durations) {
+            Assert.assertTrue(duration >= 20_000_000L);
+        }
+
+        Simulator.Result replay = Simulator.simulate(TaskGraph.of(Configuration.fromFile(batch)),
+                run.getCpus(), run.getMemory(), run.getDisks(), new PriorityPolicy(), durations);
+        Assert.assertArrayEquals(new int[]{0, 1, 3, 2}, replay.getDispatchOrder());
+    }
+
+    @Test
+    public void concurrentRunsKeepTheirEvents() throws IOException, InterruptedException {
+        File log = folder.newFile();
+        TaskGraph graph = TaskGraph.of(Configuration.fromFile(new File(getClass().getResource("batch.txt").getFile())));
+        int threads = 16;
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> started = new ArrayList<>();
+        try (TraceRecorder recorder = TraceRecorder.open(log)) {
+            for (int t = 0; t < threads; t++) {
+                // a run is told apart by its cpus, and has one event more than that
+                long cpus = t;
+                Thread thread = new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                    SchedulerListener.Run run = recorder.start(graph, cpus, 1, 1);
+                    for (int i = 0; i <= cpus; i++) {
+                        run.ready(i % graph.size());
+                    }
+                    run.finished();
+                });
+                thread.start();
+                started.add(thread);
+            }
+            go.countDown();
+            for (Thread thread : started) {
+                thread.join();
+            }
+        }
+
+        Trace trace = Trace.read(log);
+        Assert.assertEquals(threads, trace.getRuns().size());
+        boolean[] seen = new boolean[threads];
+        for (Trace.Run run : trace.getRuns()) {
+            seen[(int) run.getCpus()] = true;
+            Assert.assertEquals(run.getCpus() + 1, run.getEvents().size());
+        }
+        for (boolean s : seen) {
+            Assert.assertTrue(s);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void eventOfUnknownRunIsRejected() throws IOException {
+        File log = folder.newFile();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(log))) {
+            out.writeInt(0x53445452);
+            out.writeInt(1);
+            out.writeByte(Trace.EventType.READY.ordinal());
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeLong(System.nanoTime());
+        }
+        Trace.read(log);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherFilesAreRejected() throws IOException {
+        Trace.read(new File(getClass().getResource("batch.txt").getFile()));
+    }
+}
@@ -0,0 +1,90 @@
+import cs.technion.ac.il.sd.app.Configuration;
+import cs.technion.ac.il.sd.app.Task;
+import cs.technion.ac.il.sd.app.TaskGraph;
+import cs.technion.ac.il.sd.app.WorkloadGenerator;
+import cs.technion.ac.il.sd.app.WorkloadGenerator.Distribution;
+import cs.technion.ac.il.sd.app.WorkloadGenerator.Shape;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Tests for {@link WorkloadGenerator}
+ */
+public class WorkloadGeneratorTest {
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(20);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TaskGraph generate(WorkloadGenerator generator) throws IOException {
+        File file = folder.newFile();
+        generator.write(file);
+        return TaskGraph.of(Configuration.fromFile(file));
+    }
+
+    private static String text(WorkloadGenerator generator) throws IOException {
+        StringWriter writer = new StringWriter();
+        generator.write(writer);
+        return writer.toString();
+    }
+
+    @Test
+    public void sameSeedGivesSameWorkload() throws IOException {
+        Assert.assertEquals(text(WorkloadGenerator.builder(1000).seed(42).build()),
+                text(WorkloadGenerator.builder(1000).seed(42).build()));
+        Assert.assertNotEquals(text(WorkloadGenerator.builder(1000).seed(42).build()),
+                text(WorkloadGenerator.builder(1000).seed(43).build()));
+    }
+
+    @Test
+    public void everyShapeIsAcyclicAndFits() throws IOException {
+        for (Shape shape : Shape.values()) {
+            TaskGraph graph = generate(WorkloadGenerator.builder(5000).seed(1).shape(shape).width(7)
+                    .resources(4, 100, 10)
+                    .demands(Distribution.uniform(1, 8), Distribution.constant(100), Distribution.skewed(0, 20, 2))
+                    .build());
+            Assert.assertEquals(shape.name(), 5000, graph.size());
+            Assert.assertFalse(shape.name(), graph.hasCircularDependency());
+            for (int id = 0; id < graph.size(); id++) {
+                Task task = graph.getTask(id);
+                Assert.assertTrue(task.getCpu() <= 4 && task.getMemory() == 100 && task.getDisks() <= 10);
+            }
+        }
+    }
+
+    @Test
+    public void shapesHaveExpectedStructure() throws IOException {
+        TaskGraph chains = generate(WorkloadGenerator.builder(100).shape(Shape.CHAINS).width(10).build());
+        TaskGraph fanOut = generate(WorkloadGenerator.builder(100).shape(Shape.FAN_OUT).width(3).build());
+        TaskGraph fanIn = generate(WorkloadGenerator.builder(100).shape(Shape.FAN_IN).width(3).build());
+        for (int id = 0; id < 100; id++) {
+            Assert.assertEquals(id < 10 ? 0 : 1, chains.getGraph().inDegreeOf(id));
+            Assert.assertTrue(fanOut.getGraph().outDegreeOf(id) <= 3);
+            Assert.assertTrue(fanIn.getGraph().inDegreeOf(id) <= 3);
+            Assert.assertEquals(id == 99 ? 0 : 1, fanIn.getGraph().outDegreeOf(id));
+        }
+        Assert.assertEquals(3, fanOut.getGraph().outDegreeOf(0));
+    }
+
+    @Test
+    public void skewedPrioritiesFavorHighPriority() throws IOException {
+        TaskGraph graph = generate(WorkloadGenerator.builder(10000).seed(3)
+                .priorities(Distribution.skewed(0, 99, 3)).build());
+        int high = 0;
+        for (int id = 0; id < graph.size(); id++) {
+            if (graph.getTask(id).getPriority() < 10) {
+                high++;
+            }
+        }
+        Assert.assertTrue(high > graph.size() / 2);
+    }
+}
@@ -0,0 +1,53 @@
+package cs.technion.ac.il.sd.app;
+
+import com.google.common.collect.Lists;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * RegexConfigurationParser - the original regex based parser of configuration files, which
+ * {@link Configuration#fromFile(File)} is tested to be compatible with. It doesn't accept named resources.
+ */
+public final class RegexConfigurationParser {
+
+    private RegexConfigurationParser() {
+    }
+
+    public static Configuration parse(File file) {
+
+        Configuration c = new Configuration();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String[] resources = br.readLine().split(",\\s");
+            c.setCpus(Long.parseLong(resources[0]))
+                    .setMemory(Long.parseLong(resources[1]))
+                    .setDisks(Long.parseLong(resources[2]));
+
+            br.lines().forEach(l -> {
+                String trm = l.trim();
+                if (!trm.equals(""))
+                    parseLine(c, trm);
+            });
+        } catch (IOException e) {
+            throw new AssertionError();
+        }
+        return c;
+    }
+
+    private static void parseLine(Configuration c, String line) {
+        String[] args = line.replaceAll(",|\\(|\\)|:", " ").split("\\s+");
+        String task = args[0];
+        List<String> deps = args.length >= 5 ?
+                Lists.newArrayList(Arrays.copyOfRange(args, 1, args.length - 4)) : Lists.newArrayList();
+        List<Long> resources = Lists.newArrayList(Arrays.copyOfRange(args, args.length - 4, args.length))
+                .stream()
+                .map(Long::parseLong)
+                .collect(Collectors.toList());
+        c.addTask(task, resources.get(0), resources.get(1), resources.get(2), Math.toIntExact(resources.get(3)), deps);
+    }
+}